@@ -0,0 +1,172 @@
+package com.example.tagnote.benchmark;
+
+import com.example.tagnote.TagNoteApplication;
+import com.example.tagnote.config.SecurityConfigKeyCloak;
+import com.example.tagnote.dto.NoteDTO;
+import com.example.tagnote.service.NoteImportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.Banner;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.oauth2.client.OAuth2ClientAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.oauth2.resource.servlet.OAuth2ResourceServerAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * The application the benchmarks run against: every service and repository on
+ * a temporary SQLite database, without the web server and the Keycloak login.
+ * The database is seeded through the bulk import with notes of one user, who
+ * is set as the authenticated user for all threads.
+ */
+public final class BenchmarkContext implements AutoCloseable {
+
+    public static final String USERNAME = "bench";
+
+    // Size of the tag vocabulary the seeded notes and benchmark writes draw from
+    public static final int TAG_POOL_SIZE = 200;
+
+    public static final int TAGS_PER_NOTE = 3;
+
+    // Characters of HTML per note, enough to be stored compressed
+    public static final int CONTENT_LENGTH = 2000;
+
+    private static final String[] WORDS = { "meeting", "notes", "draft", "idea", "release", "review", "budget", "design",
+        "travel", "reading", "学习", "笔记", "计划", "总结", "sqlite", "java", "spring", "cache", "index", "query" };
+
+    private final Path directory;
+    private final ConfigurableApplicationContext context;
+
+    private BenchmarkContext(Path directory, ConfigurableApplicationContext context) {
+        this.directory = directory;
+        this.context = context;
+    }
+
+    // Starts the application on a new database seeded with the given number of
+    // notes; the read cache is off so reads measure the database path
+    public static BenchmarkContext start(int notes) throws IOException {
+        Path directory = Files.createTempDirectory("tagnote-jmh");
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(Application.class)
+            .web(WebApplicationType.NONE)
+            .bannerMode(Banner.Mode.OFF)
+            // As arguments, so they take precedence over application.properties
+            .run("--spring.datasource.url=jdbc:sqlite:" + directory.resolve("tag-note.db"),
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--app.cache.maximum-weight=0");
+        BenchmarkContext benchmarkContext = new BenchmarkContext(directory, context);
+        authenticate();
+        benchmarkContext.seed(notes);
+        return benchmarkContext;
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public List<Long> noteIds() {
+        return getBean(JdbcTemplate.class).queryForList("select id from notes where username = ? order by id", Long.class,
+            USERNAME);
+    }
+
+    public static String tagName(int index) {
+        return String.format("tag-%03d", index);
+    }
+
+    // Distinct tag names from the pool
+    public static List<String> randomTags(Random random, int count) {
+        List<String> tags = new ArrayList<>(count);
+        while (tags.size() < count) {
+            String tag = tagName(random.nextInt(TAG_POOL_SIZE));
+            if (!tags.contains(tag)) {
+                tags.add(tag);
+            }
+        }
+        return tags;
+    }
+
+    public static String randomContent(Random random) {
+        StringBuilder content = new StringBuilder(CONTENT_LENGTH + 32);
+        while (content.length() < CONTENT_LENGTH) {
+            content.append("<p>");
+            for (int i = 0; i < 12; i++) {
+                content.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            }
+            content.append(random.nextInt(100000)).append("</p>");
+        }
+        return content.toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        context.close();
+        SecurityContextHolder.clearContext();
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    // JMH calls benchmark methods from its own worker threads, so the user is set
+    // in a context shared by all threads
+    private static void authenticate() {
+        SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+        List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("OIDC_USER"));
+        User user = new User(USERNAME, "", authorities);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(user, null, authorities));
+    }
+
+    // Notes one minute apart, newest last, with a fixed random seed so every run
+    // sees the same data
+    private void seed(int notes) throws IOException {
+        ObjectMapper objectMapper = getBean(ObjectMapper.class);
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        Path file = directory.resolve("seed.ndjson");
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < notes; i++) {
+                LocalDateTime createdAt = start.plusMinutes(i);
+                NoteDTO note = new NoteDTO(null, "Note " + i, randomContent(random), createdAt, createdAt, null,
+                    randomTags(random, TAGS_PER_NOTE));
+                writer.write(objectMapper.writeValueAsString(note));
+                writer.newLine();
+            }
+        }
+        try (InputStream input = Files.newInputStream(file)) {
+            getBean(NoteImportService.class).importNotes(input);
+        }
+    }
+
+    // Entities and repositories are found from the application's package, not
+    // this one. The OAuth2 configurations would contact the Keycloak issuer.
+    @SpringBootConfiguration
+    @EnableAutoConfiguration(exclude = { OAuth2ClientAutoConfiguration.class, OAuth2ResourceServerAutoConfiguration.class })
+    @AutoConfigurationPackage(basePackageClasses = TagNoteApplication.class)
+    @ComponentScan(basePackageClasses = TagNoteApplication.class, excludeFilters = @ComponentScan.Filter(
+        type = FilterType.ASSIGNABLE_TYPE, classes = { TagNoteApplication.class, SecurityConfigKeyCloak.class }))
+    static class Application {
+    }
+}
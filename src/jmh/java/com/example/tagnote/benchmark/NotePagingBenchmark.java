@@ -0,0 +1,65 @@
+package com.example.tagnote.benchmark;
+
+import com.example.tagnote.entity.Note;
+import com.example.tagnote.repository.NoteRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Offset pagination of a user's notes, newest first, from the first page to
+ * deep into the list. Each call also runs the count query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NotePagingBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param("10000")
+    private int notes;
+
+    // Rounded down to a multiple of the page size
+    @Param({ "0", "1000", "9000" })
+    private int offset;
+
+    private BenchmarkContext context;
+    private NoteRepository noteRepository;
+    private PageRequest pageRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = BenchmarkContext.start(notes);
+        noteRepository = context.getBean(NoteRepository.class);
+        pageRequest = PageRequest.of(offset / PAGE_SIZE, PAGE_SIZE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<Note> findByUsernameOrderByCreatedAtDesc() {
+        return noteRepository.findByUsernameOrderByCreatedAtDesc(BenchmarkContext.USERNAME, pageRequest);
+    }
+}
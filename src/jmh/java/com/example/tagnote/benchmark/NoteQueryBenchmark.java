@@ -0,0 +1,71 @@
+package com.example.tagnote.benchmark;
+
+import com.example.tagnote.entity.Note;
+import com.example.tagnote.entity.UserStats;
+import com.example.tagnote.repository.NoteRepository;
+import com.example.tagnote.service.UserStatsService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The tag filter join query and the statistics read, both with the read cache
+ * off.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NoteQueryBenchmark {
+
+    @Param("10000")
+    private int notes;
+
+    private BenchmarkContext context;
+    private NoteRepository noteRepository;
+    private UserStatsService userStatsService;
+    private List<String> tagNames;
+    private PageRequest pageRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = BenchmarkContext.start(notes);
+        noteRepository = context.getBean(NoteRepository.class);
+        userStatsService = context.getBean(UserStatsService.class);
+        tagNames = List.of(BenchmarkContext.tagName(0), BenchmarkContext.tagName(1));
+        pageRequest = PageRequest.of(0, 20);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<Note> findByTagNamesAndUsername() {
+        return noteRepository.findByTagNamesAndUsername(tagNames, BenchmarkContext.USERNAME, pageRequest);
+    }
+
+    @Benchmark
+    public UserStats getStatistics() {
+        return userStatsService.getStatistics();
+    }
+}
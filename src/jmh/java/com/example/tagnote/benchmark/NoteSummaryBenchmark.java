@@ -0,0 +1,108 @@
+package com.example.tagnote.benchmark;
+
+import com.example.tagnote.dto.NoteSummaryDTO;
+import com.example.tagnote.entity.Note;
+import com.example.tagnote.repository.NoteRepository;
+import com.example.tagnote.service.NoteService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A page of the full list (GET /api/notes/paginated) against the same page
+ * with view=summary: the repository query alone, and the page as the endpoint
+ * returns it, converted to DTOs and serialized to JSON. The JSON benchmarks
+ * also report the secondary metrics "bytes" and "pages", the bytes and pages
+ * serialized; bytes / pages is the size of one page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NoteSummaryBenchmark {
+
+    @Param("10000")
+    private int notes;
+
+    @Param({ "20", "100" })
+    private int pageSize;
+
+    private BenchmarkContext context;
+    private NoteService noteService;
+    private NoteRepository noteRepository;
+    private ObjectMapper objectMapper;
+    private PageRequest pageRequest;
+
+    // Totals over the measured iterations, reported as is rather than per second
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Payload {
+        public long bytes;
+        public long pages;
+
+        void add(byte[] page) {
+            bytes += page.length;
+            pages++;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = BenchmarkContext.start(notes);
+        noteService = context.getBean(NoteService.class);
+        noteRepository = context.getBean(NoteRepository.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        pageRequest = PageRequest.of(0, pageSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+    }
+
+    // Loads and decompresses the content of every note on the page
+    @Benchmark
+    public Page<Note> fullQuery() {
+        return noteService.getAllNotes(pageRequest);
+    }
+
+    // The constructor projection: the preview column, never the content
+    @Benchmark
+    public Page<NoteSummaryDTO> summaryQuery() {
+        return noteRepository.findSummariesByUsername(BenchmarkContext.USERNAME, pageRequest);
+    }
+
+    @Benchmark
+    public byte[] fullJson(Payload payload) throws JsonProcessingException {
+        byte[] json = objectMapper.writeValueAsBytes(noteService.getNotePage(pageRequest).getContent());
+        payload.add(json);
+        return json;
+    }
+
+    @Benchmark
+    public byte[] summaryJson(Payload payload) throws JsonProcessingException {
+        byte[] json = objectMapper.writeValueAsBytes(noteService.getNoteSummaries(pageRequest).getContent());
+        payload.add(json);
+        return json;
+    }
+}
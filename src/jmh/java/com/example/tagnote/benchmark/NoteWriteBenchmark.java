@@ -0,0 +1,72 @@
+package com.example.tagnote.benchmark;
+
+import com.example.tagnote.entity.Note;
+import com.example.tagnote.service.NoteService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * NoteService.createNote and updateNote, each a full write transaction on the
+ * single writer connection, with a varying number of (existing) tags.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NoteWriteBenchmark {
+
+    @Param("10000")
+    private int notes;
+
+    @Param({ "0", "1", "5", "20" })
+    private int tagCount;
+
+    private BenchmarkContext context;
+    private NoteService noteService;
+    private List<Long> noteIds;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = BenchmarkContext.start(notes);
+        noteService = context.getBean(NoteService.class);
+        noteIds = context.noteIds();
+        random = new Random(7);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+    }
+
+    @Benchmark
+    public Note createNote() {
+        return noteService.createNote("Benchmark note", BenchmarkContext.randomContent(random),
+            BenchmarkContext.randomTags(random, tagCount));
+    }
+
+    @Benchmark
+    public Note updateNote() {
+        Long id = noteIds.get(random.nextInt(noteIds.size()));
+        return noteService.updateNote(id, "Updated note", BenchmarkContext.randomContent(random),
+            BenchmarkContext.randomTags(random, tagCount), null);
+    }
+}
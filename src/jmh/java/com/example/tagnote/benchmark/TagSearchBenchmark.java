@@ -0,0 +1,137 @@
+package com.example.tagnote.benchmark;
+
+import com.example.tagnote.entity.Note;
+import com.example.tagnote.repository.NoteRepository;
+import com.example.tagnote.service.NoteService;
+import com.example.tagnote.service.TagBitmapIndex;
+import com.example.tagnote.service.TagQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tag search through the bitmap index (NoteService.searchNotesByTags) against
+ * joins over note_tags, for OR (match=any), AND (match=all) and NOT (exclude)
+ * queries. Both sides return the first page of notes and the number of
+ * matches. OR runs the JOIN query the index replaced, which counts a note once
+ * per matching tag.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TagSearchBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    // Notes with one of the first two tags, with both of them, or with one of
+    // them but not the third
+    private static final String OR_SQL = "SELECT n.id FROM notes n JOIN note_tags nt ON nt.note_id = n.id "
+        + "JOIN tags t ON t.id = nt.tag_id WHERE n.username = ? AND t.name IN (?, ?) ";
+    private static final String AND_SQL = OR_SQL + "GROUP BY n.id HAVING COUNT(*) = 2";
+    private static final String NOT_SQL = OR_SQL + "AND NOT EXISTS (SELECT 1 FROM note_tags x JOIN tags xt ON xt.id = x.tag_id "
+        + "WHERE x.note_id = n.id AND xt.name = ?) GROUP BY n.id";
+
+    @Param("100000")
+    private int notes;
+
+    @Param({ "or", "and", "not" })
+    private String query;
+
+    private BenchmarkContext context;
+    private NoteService noteService;
+    private TagBitmapIndex tagBitmapIndex;
+    private NoteRepository noteRepository;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private List<String> tagNames;
+    private String excludedTagName;
+    private TagQuery tagQuery;
+    private PageRequest pageRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = BenchmarkContext.start(notes);
+        noteService = context.getBean(NoteService.class);
+        tagBitmapIndex = context.getBean(TagBitmapIndex.class);
+        noteRepository = context.getBean(NoteRepository.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transactionTemplate.setReadOnly(true);
+        tagNames = List.of(BenchmarkContext.tagName(0), BenchmarkContext.tagName(1));
+        excludedTagName = BenchmarkContext.tagName(2);
+        tagQuery = switch (query) {
+        case "and" -> new TagQuery(tagNames, null, null);
+        case "not" -> new TagQuery(null, tagNames, List.of(excludedTagName));
+        default -> TagQuery.anyOf(tagNames);
+        };
+        pageRequest = PageRequest.of(0, PAGE_SIZE);
+
+        // Loads the user's index, and checks that both sides find the same notes
+        long indexTotal = bitmapIndex().getTotalElements();
+        long joinTotal = joinQuery().getTotalElements();
+        if (!query.equals("or") && indexTotal != joinTotal) {
+            throw new IllegalStateException(query + ": the index found " + indexTotal + " notes, the join " + joinTotal);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<Note> bitmapIndex() {
+        return noteService.searchNotesByTags(tagQuery, pageRequest);
+    }
+
+    // The index lookup alone: the page of ids and the total, without loading notes
+    @Benchmark
+    public TagBitmapIndex.Result bitmapIndexIds() {
+        return tagBitmapIndex.query(BenchmarkContext.USERNAME, tagQuery, 0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public Page<Note> joinQuery() {
+        return transactionTemplate.execute(status -> switch (query) {
+        case "and" -> joinPage(AND_SQL, BenchmarkContext.USERNAME, tagNames.get(0), tagNames.get(1));
+        case "not" -> joinPage(NOT_SQL, BenchmarkContext.USERNAME, tagNames.get(0), tagNames.get(1), excludedTagName);
+        default -> noteRepository.findByTagNamesAndUsername(tagNames, BenchmarkContext.USERNAME, pageRequest);
+        });
+    }
+
+    // The first page of matching ids and their count, one join each, then the
+    // notes of the page by id
+    private Page<Note> joinPage(String matchSql, Object... arguments) {
+        List<Long> ids = jdbcTemplate.queryForList(matchSql + " ORDER BY n.created_at DESC, n.id DESC LIMIT " + PAGE_SIZE, Long.class,
+            arguments);
+        Long total = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM (" + matchSql + ")", Long.class, arguments);
+        List<Note> page = new ArrayList<>(noteRepository.findAllById(ids));
+        page.sort(Comparator.comparingInt(note -> ids.indexOf(note.getId())));
+        return new PageImpl<>(page, pageRequest, total);
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.tagnote.controller;
+
+import com.example.tagnote.benchmark.BenchmarkContext;
+import com.example.tagnote.dto.NoteDTO;
+import com.example.tagnote.entity.Note;
+import com.example.tagnote.service.NoteService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converting a loaded page of notes to DTOs, including the one query for their
+ * tag names. Lives in the controller package to reach convertToDTOs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NoteControllerBenchmark {
+
+    @Param("10000")
+    private int notes;
+
+    @Param({ "20", "100" })
+    private int pageSize;
+
+    private BenchmarkContext context;
+    private NoteController noteController;
+    private List<Note> page;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = BenchmarkContext.start(notes);
+        noteController = context.getBean(NoteController.class);
+        page = context.getBean(NoteService.class).getAllNotes(PageRequest.of(0, pageSize)).getContent();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+    }
+
+    @Benchmark
+    public List<NoteDTO> convertToDTOs() {
+        return noteController.convertToDTOs(page);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.tagnote.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.AnonymousAuthenticationFilter;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Security for the {@code loadtest} profile, used in place of
+ * SecurityConfigKeyCloak: a request is authenticated as the user named in the
+ * {@value #USER_HEADER} header, without Keycloak and without a session. Never
+ * enable this profile on a reachable server.
+ */
+@Profile("loadtest")
+@Configuration
+@EnableWebSecurity
+public class LoadTestSecurityConfig {
+
+    public static final String USER_HEADER = "X-Load-Test-User";
+
+    @Bean
+    public SecurityFilterChain configure(HttpSecurity http) throws Exception {
+        http
+            .sessionManagement((sessionManagement) -> sessionManagement.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .csrf((csrf) -> csrf.disable())
+            .addFilterBefore(new UserHeaderFilter(), AnonymousAuthenticationFilter.class)
+            .authorizeHttpRequests(
+                (authorizeHttpRequests) -> authorizeHttpRequests
+                    .requestMatchers("/api/**").hasAuthority("OIDC_USER")
+                    .anyRequest().permitAll());
+        return http.build();
+    }
+
+    private static class UserHeaderFilter extends OncePerRequestFilter {
+        // Streamed responses such as the export finish in an async dispatch, which
+        // goes through the filter chain again without the request's security context
+        @Override
+        protected boolean shouldNotFilterAsyncDispatch() {
+            return false;
+        }
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+            String username = request.getHeader(USER_HEADER);
+            if (username != null && !username.isBlank()) {
+                List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("OIDC_USER"));
+                User user = new User(username, "", authorities);
+                SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(user, null, authorities));
+            }
+            filterChain.doFilter(request, response);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.tagnote.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Hibernate work per API request: SQL statements prepared, entities loaded and
+ * lazy collections initialized, recorded as distribution summaries
+ * tagnote.request.statements, tagnote.request.entities.loaded and
+ * tagnote.request.collections.initialized, tagged with the method and URI
+ * pattern. Counted on the request thread, so JdbcTemplate queries and the
+ * asynchronously written export are not included.
+ */
+@Configuration
+public class RequestStatisticsConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer statementCounter() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, (StatementInspector) sql -> {
+            RequestStatistics statistics = RequestStatistics.CURRENT.get();
+            if (statistics != null) {
+                statistics.statements++;
+            }
+            return sql;
+        });
+    }
+
+    @Bean
+    public FilterRegistrationBean<RequestStatisticsFilter> requestStatisticsFilter(EntityManagerFactory entityManagerFactory,
+        MeterRegistry meterRegistry) {
+        EventListenerRegistry listeners = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry()
+            .getService(EventListenerRegistry.class);
+        listeners.appendListeners(EventType.POST_LOAD, (PostLoadEventListener) event -> {
+            RequestStatistics statistics = RequestStatistics.CURRENT.get();
+            if (statistics != null) {
+                statistics.entitiesLoaded++;
+            }
+        });
+        listeners.appendListeners(EventType.INIT_COLLECTION, (InitializeCollectionEventListener) event -> {
+            RequestStatistics statistics = RequestStatistics.CURRENT.get();
+            if (statistics != null) {
+                statistics.collectionsInitialized++;
+            }
+        });
+
+        FilterRegistrationBean<RequestStatisticsFilter> registration = new FilterRegistrationBean<>(
+            new RequestStatisticsFilter(meterRegistry));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+
+    private static class RequestStatistics {
+        private static final ThreadLocal<RequestStatistics> CURRENT = new ThreadLocal<>();
+
+        private long statements;
+        private long entitiesLoaded;
+        private long collectionsInitialized;
+    }
+
+    static class RequestStatisticsFilter extends OncePerRequestFilter {
+        private final MeterRegistry meterRegistry;
+
+        RequestStatisticsFilter(MeterRegistry meterRegistry) {
+            this.meterRegistry = meterRegistry;
+        }
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+            RequestStatistics statistics = new RequestStatistics();
+            RequestStatistics.CURRENT.set(statistics);
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                RequestStatistics.CURRENT.remove();
+                // Set by the handler mapping once the request has been matched
+                Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                Tags tags = Tags.of("method", request.getMethod(), "uri", pattern != null ? pattern.toString() : "UNKNOWN");
+                record("tagnote.request.statements", "SQL statements prepared by Hibernate for one request", tags,
+                    statistics.statements);
+                record("tagnote.request.entities.loaded", "Entities loaded by Hibernate for one request", tags,
+                    statistics.entitiesLoaded);
+                record("tagnote.request.collections.initialized", "Lazy collections initialized for one request", tags,
+                    statistics.collectionsInitialized);
+            }
+        }
+
+        private void record(String name, String description, Tags tags, long value) {
+            DistributionSummary.builder(name)
+                .description(description)
+                .tags(tags)
+                .register(meterRegistry)
+                .record(value);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.tagnote.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.sqlite.BusyHandler;
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteConnection;
+import org.sqlite.SQLiteDataSource;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * SQLite allows one writer at a time. All read-write work goes through a pool
+ * holding a single connection, so writers queue in the pool instead of failing
+ * with SQLITE_BUSY, while {@code @Transactional(readOnly = true)} work runs on
+ * a separate pool of read-only connections that WAL lets proceed alongside the
+ * writer.
+ */
+@Configuration
+public class SQLiteDataSourceConfig {
+
+    @Value("${spring.datasource.url}")
+    private String url;
+
+    @Value("${app.sqlite.reader-pool-size:4}")
+    private int readerPoolSize;
+
+    @Value("${app.sqlite.busy-timeout-ms:5000}")
+    private int busyTimeoutMs;
+
+    @Value("${app.sqlite.writer-wait-timeout-ms:30000}")
+    private long writerWaitTimeoutMs;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Bean
+    public HikariDataSource writerDataSource() {
+        SQLiteConfig config = sqliteConfig();
+        config.setJournalMode(SQLiteConfig.JournalMode.WAL);
+        // In WAL mode NORMAL only syncs at checkpoints, so a commit is an append to
+        // the WAL file instead of an fsync per transaction
+        config.setSynchronous(SQLiteConfig.SynchronousMode.NORMAL);
+        // Take the write lock at BEGIN rather than on the first write
+        config.setTransactionMode(SQLiteConfig.TransactionMode.IMMEDIATE);
+
+        HikariDataSource dataSource = pool("sqlite-writer", config);
+        dataSource.setMaximumPoolSize(1);
+        // Writers wait here for their turn; this is the write queue
+        dataSource.setConnectionTimeout(writerWaitTimeoutMs);
+        return dataSource;
+    }
+
+    @Bean
+    public HikariDataSource readerDataSource() {
+        SQLiteConfig config = sqliteConfig();
+        config.setReadOnly(true);
+
+        HikariDataSource dataSource = pool("sqlite-reader", config);
+        dataSource.setMaximumPoolSize(readerPoolSize);
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    // Hands out the writer unless the transaction is read-only. The physical
+    // connection is fetched on first use, after the transaction manager has
+    // marked it read-only.
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource writerDataSource, HikariDataSource readerDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(writerDataSource);
+        dataSource.setReadOnlyDataSource(readerDataSource);
+        return dataSource;
+    }
+
+    @Bean
+    public JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory,
+        ObjectProvider<TransactionManagerCustomizers> transactionManagerCustomizers, ObjectProvider<MeterRegistry> meterRegistry) {
+        Timer commitTimer = Timer.builder("tagnote.db.commit")
+            .description("Time to commit a write transaction on the SQLite writer connection")
+            .register(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+        JpaTransactionManager transactionManager = new TimedJpaTransactionManager(entityManagerFactory, commitTimer);
+        transactionManagerCustomizers.ifAvailable(customizers -> customizers.customize(transactionManager));
+        return transactionManager;
+    }
+
+    private SQLiteConfig sqliteConfig() {
+        SQLiteConfig config = new SQLiteConfig();
+        config.setBusyTimeout(busyTimeoutMs);
+        return config;
+    }
+
+    private HikariDataSource pool(String poolName, SQLiteConfig config) {
+        MeterRegistry registry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+        CountingBusyHandler busyHandler = new CountingBusyHandler(busyTimeoutMs,
+            Counter.builder("tagnote.sqlite.busy")
+                .description("Retries of a statement that found the database locked")
+                .tag("pool", poolName)
+                .register(registry),
+            Counter.builder("tagnote.sqlite.busy.timeouts")
+                .description("Statements that failed with SQLITE_BUSY after the busy timeout")
+                .tag("pool", poolName)
+                .register(registry));
+        SQLiteDataSource sqliteDataSource = new BusyHandlerDataSource(config, busyHandler);
+        sqliteDataSource.setUrl(url);
+
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(poolName);
+        dataSource.setDataSource(sqliteDataSource);
+        return dataSource;
+    }
+
+    private static class BusyHandlerDataSource extends SQLiteDataSource {
+        private final BusyHandler busyHandler;
+
+        BusyHandlerDataSource(SQLiteConfig config, BusyHandler busyHandler) {
+            super(config);
+            this.busyHandler = busyHandler;
+        }
+
+        @Override
+        public SQLiteConnection getConnection(String username, String password) throws SQLException {
+            SQLiteConnection connection = super.getConnection(username, password);
+            BusyHandler.setHandler(connection, busyHandler);
+            return connection;
+        }
+    }
+
+    // Takes the place of busy_timeout, which SQLite clears when a handler is set:
+    // waits with the same back-off as SQLite's own handler until the timeout,
+    // counting each retry
+    private static class CountingBusyHandler extends BusyHandler {
+        private static final int[] DELAYS_MS = { 1, 2, 5, 10, 15, 20, 25, 25, 25, 50, 50, 100 };
+
+        private final int timeoutMs;
+        private final Counter retries;
+        private final Counter timeouts;
+
+        CountingBusyHandler(int timeoutMs, Counter retries, Counter timeouts) {
+            this.timeoutMs = timeoutMs;
+            this.retries = retries;
+            this.timeouts = timeouts;
+        }
+
+        @Override
+        protected int callback(int previousCalls) {
+            int waited = 0;
+            for (int i = 0; i < previousCalls; i++) {
+                waited += DELAYS_MS[Math.min(i, DELAYS_MS.length - 1)];
+            }
+            int delay = Math.min(DELAYS_MS[Math.min(previousCalls, DELAYS_MS.length - 1)], timeoutMs - waited);
+            if (delay <= 0) {
+                timeouts.increment();
+                return 0;
+            }
+            retries.increment();
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return 0;
+            }
+            return 1;
+        }
+    }
+
+    private static class TimedJpaTransactionManager extends JpaTransactionManager {
+        private final Timer commitTimer;
+
+        TimedJpaTransactionManager(EntityManagerFactory entityManagerFactory, Timer commitTimer) {
+            super(entityManagerFactory);
+            this.commitTimer = commitTimer;
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            if (status.isReadOnly()) {
+                super.doCommit(status);
+                return;
+            }
+            commitTimer.record(() -> super.doCommit(status));
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.example.tagnote.config;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import org.springframework.core.annotation.Order;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -22,6 +23,7 @@ import static org.springframework.security.config.Customizer.withDefaults;
  * Keycloak对应的Security文件，如果没有搭建Keycloak服务，将本文件注释，启用另一个SecurityConfig代码
  */
 @Order(0)
+@Profile("!loadtest")
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity(prePostEnabled = true)
@@ -1,21 +1,52 @@
 package com.example.tagnote.controller;
 
+import com.example.tagnote.dto.NoteBatchRequestDTO;
+import com.example.tagnote.dto.NoteBatchResultDTO;
+import com.example.tagnote.dto.NoteCursor;
+import com.example.tagnote.dto.NoteDayCountDTO;
 import com.example.tagnote.dto.NoteDTO;
+import com.example.tagnote.dto.NoteImportResultDTO;
+import com.example.tagnote.dto.NoteSearchHitDTO;
+import com.example.tagnote.dto.NoteSummaryDTO;
+import com.example.tagnote.dto.SearchCursor;
 import com.example.tagnote.entity.Note;
+import com.example.tagnote.entity.NoteBody;
 import com.example.tagnote.entity.Tag;
+import com.example.tagnote.entity.UserStats;
+import com.example.tagnote.service.NoteBatchService;
+import com.example.tagnote.service.NoteExportService;
+import com.example.tagnote.service.NoteImportService;
+import com.example.tagnote.service.NoteSearchService;
 import com.example.tagnote.service.NoteService;
+import com.example.tagnote.service.NoteTimeRange;
+import com.example.tagnote.service.TagQuery;
 import com.example.tagnote.service.UserService;
+import com.example.tagnote.service.UserStatsService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,37 +60,121 @@ public class NoteController {
     @Autowired
     private NoteService noteService;
 
+    @Autowired
+    private NoteSearchService noteSearchService;
+
+    @Autowired
+    private UserStatsService userStatsService;
+
+    @Autowired
+    private NoteImportService noteImportService;
+
+    @Autowired
+    private NoteExportService noteExportService;
+
+    @Autowired
+    private NoteBatchService noteBatchService;
+
     @Autowired
     private UserService userService;
 
     @Value("${app.notes.page-size:5}")
     private int defaultPageSize;
 
+    // List endpoints take view=summary to return NoteSummaryDTOs, with a preview
+    // instead of the full content; any other value returns full NoteDTOs
+    private static final String SUMMARY_VIEW = "summary";
+
+    // Most notes GET /search returns, and the headers reporting the full number of
+    // matches
+    private static final int SEARCH_LIMIT = 1000;
+    private static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+    private static final String TRUNCATED_HEADER = "X-Results-Truncated";
+
     @GetMapping
-    public ResponseEntity<List<NoteDTO>> getAllNotes() {
+    public ResponseEntity<List<?>> getAllNotes(@RequestParam(defaultValue = "full") String view) {
+        if (isSummary(view)) {
+            return ResponseEntity.ok(noteService.getAllNoteSummaries());
+        }
         List<Note> notes = noteService.getAllNotes();
-        List<NoteDTO> noteDTOs = notes.stream().map(this::convertToDTO).collect(Collectors.toList());
+        List<NoteDTO> noteDTOs = convertToDTOs(notes);
         return ResponseEntity.ok(noteDTOs);
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<NoteDTO> getNoteById(@PathVariable Long id) {
         return noteService.getNoteById(id)
-            .map(note -> ResponseEntity.ok(convertToDTO(note)))
+            .map(note -> ResponseEntity.ok().eTag(eTagOf(note)).body(convertToDTO(note)))
             .orElse(ResponseEntity.notFound().build());
     }
 
     @PostMapping
     public ResponseEntity<NoteDTO> createNote(@RequestBody NoteDTO noteDTO) {
+        if (isTooLong(noteDTO.getContent())) {
+            return ResponseEntity.badRequest().build();
+        }
         Note note = noteService.createNote(noteDTO.getTitle(), noteDTO.getContent(), noteDTO.getTags());
-        return ResponseEntity.status(HttpStatus.CREATED).body(convertToDTO(note));
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(eTagOf(note)).body(convertToDTO(note));
+    }
+
+    // Bulk import from an NDJSON or JSON-array body, read as it streams in;
+    // failed records are listed in the response, the others are kept
+    @PostMapping(value = "/import", consumes = { "application/x-ndjson", MediaType.APPLICATION_JSON_VALUE })
+    public ResponseEntity<NoteImportResultDTO> importNotes(HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(noteImportService.importNotes(request.getInputStream()));
+    }
+
+    // All of the user's notes as NDJSON, written to the response as they are read
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportNotes(@RequestParam(defaultValue = "none") String compression) {
+        NoteExportService.Compression exportCompression;
+        try {
+            exportCompression = NoteExportService.Compression.valueOf(compression.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        // The body is written on another thread, outside the security context
+        String username = userService.getUsername();
+        String fileName = "notes-" + LocalDate.now();
+        MediaType contentType;
+        switch (exportCompression) {
+        case GZIP -> {
+            fileName += ".ndjson.gz";
+            contentType = MediaType.parseMediaType("application/gzip");
+        }
+        case ZIP -> {
+            fileName += ".zip";
+            contentType = MediaType.parseMediaType("application/zip");
+        }
+        default -> {
+            fileName += ".ndjson";
+            contentType = MediaType.parseMediaType("application/x-ndjson");
+        }
+        }
+        StreamingResponseBody body = out -> noteExportService.exportNotes(username, exportCompression, out);
+        return ResponseEntity.ok()
+            .contentType(contentType)
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+            .body(body);
     }
 
+    // With If-Match set to the ETag of the note as last read, an edit made in the
+    // meantime (e.g. from another device) fails with 412 instead of being
+    // overwritten
     @PutMapping("/{id}")
-    public ResponseEntity<NoteDTO> updateNote(@PathVariable Long id, @RequestBody NoteDTO noteDTO) {
-        Note note = noteService.updateNote(id, noteDTO.getTitle(), noteDTO.getContent(), noteDTO.getTags());
+    public ResponseEntity<NoteDTO> updateNote(@PathVariable Long id, @RequestBody NoteDTO noteDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (isTooLong(noteDTO.getContent())) {
+            return ResponseEntity.badRequest().build();
+        }
+        Note note;
+        try {
+            note = noteService.updateNote(id, noteDTO.getTitle(), noteDTO.getContent(), noteDTO.getTags(), versionOf(ifMatch));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
         if (note != null) {
-            return ResponseEntity.ok(convertToDTO(note));
+            return ResponseEntity.ok().eTag(eTagOf(note)).body(convertToDTO(note));
         } else {
             return ResponseEntity.notFound().build();
         }
@@ -72,105 +187,293 @@ public class NoteController {
     }
 
     @GetMapping("/paginated")
-    public ResponseEntity<PaginatedResponse> getAllNotesPaginated(
+    public ResponseEntity<PaginatedResponse<?>> getAllNotesPaginated(
         @RequestParam(defaultValue = "0") int page,
-        @RequestParam(defaultValue = "${app.notes.page-size:5}") int size) {
+        @RequestParam(defaultValue = "${app.notes.page-size:5}") int size,
+        @RequestParam(defaultValue = "full") String view) {
 
         // Use the configured page size if not provided or if it's invalid
         int pageSize = (size <= 0) ? defaultPageSize : Math.min(size, 100); // Cap at 100 for performance
         Pageable pageable = PageRequest.of(page, pageSize);
 
-        Page<Note> notePage = noteService.getAllNotes(pageable);
-        List<NoteDTO> noteDTOs = notePage.getContent().stream().map(this::convertToDTO).collect(Collectors.toList());
-
-        PaginatedResponse response = new PaginatedResponse(
-            noteDTOs,
-            notePage.getNumber(),
-            notePage.getSize(),
-            notePage.getTotalElements(),
-            notePage.getTotalPages(),
-            notePage.hasNext(),
-            notePage.hasPrevious());
+        if (isSummary(view)) {
+            Page<NoteSummaryDTO> summaryPage = noteService.getNoteSummaries(pageable);
+            return ResponseEntity.ok(toPaginatedResponse(summaryPage, summaryPage.getContent()));
+        }
+        Page<NoteDTO> notePage = noteService.getNotePage(pageable);
+        return ResponseEntity.ok(toPaginatedResponse(notePage, notePage.getContent()));
+    }
 
-        return ResponseEntity.ok(response);
+    // Many create/update/delete/addTags/removeTags operations in one transaction,
+    // with a result per operation; 400 if an atomic batch was not written
+    @PostMapping("/batch")
+    public ResponseEntity<NoteBatchResultDTO> applyBatch(@RequestBody NoteBatchRequestDTO request) {
+        try {
+            NoteBatchResultDTO result = noteBatchService.apply(request);
+            return result.isCommitted() ? ResponseEntity.ok(result) : ResponseEntity.badRequest().body(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
+    // Tag search: match=any (default) returns notes with any of the tags, match=all
+    // notes with every tag;
+    // notes carrying any tag in exclude are left out.
+    // Returns at most SEARCH_LIMIT notes, newest first, like GET /api/notes; the
+    // X-Total-Count header holds the number of matches and X-Results-Truncated is
+    // set when there were more (use /search/paginated for those)
     @GetMapping("/search")
-    public ResponseEntity<List<NoteDTO>> searchNotes(@RequestParam(required = false) List<String> tags) {
-        List<Note> notes;
-        if (tags != null && !tags.isEmpty()) {
-            notes = noteService.searchNotesByTags(tags);
-        } else {
-            notes = noteService.getAllNotes();
+    public ResponseEntity<List<?>> searchNotes(
+        @RequestParam(required = false) List<String> tags,
+        @RequestParam(defaultValue = "any") String match,
+        @RequestParam(required = false) List<String> exclude,
+        @RequestParam(defaultValue = "full") String view) {
+        Pageable firstResults = PageRequest.of(0, SEARCH_LIMIT);
+        if (isSummary(view)) {
+            Page<NoteSummaryDTO> summaryPage = hasTagFilter(tags, exclude)
+                ? noteService.searchNoteSummariesByTags(toTagQuery(tags, match, exclude), firstResults)
+                : noteService.getNoteSummaries(firstResults);
+            return withTotalHeaders(summaryPage).body(summaryPage.getContent());
         }
-
-        List<NoteDTO> noteDTOs = notes.stream().map(this::convertToDTO).collect(Collectors.toList());
-        return ResponseEntity.ok(noteDTOs);
+        if (!hasTagFilter(tags, exclude)) {
+            Page<NoteDTO> notePage = noteService.getNotePage(firstResults);
+            return withTotalHeaders(notePage).body(notePage.getContent());
+        }
+        Page<Note> notePage = noteService.searchNotesByTags(toTagQuery(tags, match, exclude), firstResults);
+        return withTotalHeaders(notePage).body(convertToDTOs(notePage.getContent()));
     }
 
     @GetMapping("/search/paginated")
-    public ResponseEntity<PaginatedResponse> searchNotesPaginated(
+    public ResponseEntity<PaginatedResponse<?>> searchNotesPaginated(
         @RequestParam(required = false) List<String> tags,
+        @RequestParam(defaultValue = "any") String match,
+        @RequestParam(required = false) List<String> exclude,
         @RequestParam(defaultValue = "0") int page,
-        @RequestParam(defaultValue = "${app.notes.page-size:5}") int size) {
+        @RequestParam(defaultValue = "${app.notes.page-size:5}") int size,
+        @RequestParam(defaultValue = "full") String view) {
 
         // Use the configured page size if not provided or if it's invalid
         int pageSize = (size <= 0) ? defaultPageSize : Math.min(size, 100); // Cap at 100 for performance
         Pageable pageable = PageRequest.of(page, pageSize);
 
-        Page<Note> notePage;
-        if (tags != null && !tags.isEmpty()) {
-            notePage = noteService.searchNotesByTags(tags, pageable);
-        } else {
-            notePage = noteService.getAllNotes(pageable);
+        if (isSummary(view)) {
+            Page<NoteSummaryDTO> summaryPage;
+            if (hasTagFilter(tags, exclude)) {
+                summaryPage = noteService.searchNoteSummariesByTags(toTagQuery(tags, match, exclude), pageable);
+            } else {
+                summaryPage = noteService.getNoteSummaries(pageable);
+            }
+            return ResponseEntity.ok(toPaginatedResponse(summaryPage, summaryPage.getContent()));
         }
 
-        List<NoteDTO> noteDTOs = notePage.getContent().stream().map(this::convertToDTO).collect(Collectors.toList());
+        if (!hasTagFilter(tags, exclude)) {
+            Page<NoteDTO> notePage = noteService.getNotePage(pageable);
+            return ResponseEntity.ok(toPaginatedResponse(notePage, notePage.getContent()));
+        }
+        Page<Note> notePage = noteService.searchNotesByTags(toTagQuery(tags, match, exclude), pageable);
+        return ResponseEntity.ok(toPaginatedResponse(notePage, convertToDTOs(notePage.getContent())));
+    }
 
-        PaginatedResponse response = new PaginatedResponse(
-            noteDTOs,
-            notePage.getNumber(),
-            notePage.getSize(),
-            notePage.getTotalElements(),
-            notePage.getTotalPages(),
-            notePage.hasNext(),
-            notePage.hasPrevious());
+    // Keyset (cursor) pagination: stable under concurrent inserts, no COUNT(*)
+    // unless includeTotal is set. from/to limit the list to notes created on
+    // those days (both inclusive) in the tz time zone, the server's by default
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorResponse<?>> getAllNotesByCursor(
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "${app.notes.page-size:5}") int size,
+        @RequestParam(defaultValue = "false") boolean includeTotal,
+        @RequestParam(defaultValue = "full") String view,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+        @RequestParam(required = false) String tz) {
 
-        return ResponseEntity.ok(response);
+        int pageSize = (size <= 0) ? defaultPageSize : Math.min(size, 100); // Cap at 100 for performance
+        NoteCursor noteCursor;
+        NoteTimeRange range;
+        try {
+            noteCursor = (cursor == null || cursor.isEmpty()) ? null : NoteCursor.decode(cursor);
+            range = toTimeRange(from, to, tz);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        Long totalElements = includeTotal ? noteService.countNotes(range) : null;
+        if (isSummary(view)) {
+            return ResponseEntity
+                .ok(toSummaryCursorResponse(noteService.getNoteSummariesAfter(noteCursor, pageSize, range), pageSize, totalElements));
+        }
+        Slice<Note> noteSlice = noteService.getNotesAfter(noteCursor, pageSize, range);
+        return ResponseEntity.ok(toCursorResponse(noteSlice, pageSize, totalElements));
     }
 
-    // Endpoint to get distinct note creation dates for calendar view
+    @GetMapping("/search/cursor")
+    public ResponseEntity<CursorResponse<?>> searchNotesByCursor(
+        @RequestParam(required = false) List<String> tags,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "${app.notes.page-size:5}") int size,
+        @RequestParam(defaultValue = "false") boolean includeTotal,
+        @RequestParam(defaultValue = "full") String view,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+        @RequestParam(required = false) String tz) {
+
+        int pageSize = (size <= 0) ? defaultPageSize : Math.min(size, 100); // Cap at 100 for performance
+        NoteCursor noteCursor;
+        NoteTimeRange range;
+        try {
+            noteCursor = (cursor == null || cursor.isEmpty()) ? null : NoteCursor.decode(cursor);
+            range = toTimeRange(from, to, tz);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        boolean hasTags = tags != null && !tags.isEmpty();
+        Long totalElements = null;
+        if (includeTotal) {
+            totalElements = hasTags ? noteService.countNotesByTags(tags, range) : noteService.countNotes(range);
+        }
+        if (isSummary(view)) {
+            Slice<NoteSummaryDTO> summarySlice = hasTags ? noteService.searchNoteSummariesByTagsAfter(tags, noteCursor, pageSize, range)
+                : noteService.getNoteSummariesAfter(noteCursor, pageSize, range);
+            return ResponseEntity.ok(toSummaryCursorResponse(summarySlice, pageSize, totalElements));
+        }
+        Slice<Note> noteSlice = hasTags ? noteService.searchNotesByTagsAfter(tags, noteCursor, pageSize, range)
+            : noteService.getNotesAfter(noteCursor, pageSize, range);
+        return ResponseEntity.ok(toCursorResponse(noteSlice, pageSize, totalElements));
+    }
+
+    // Full-text search over title and content, BM25 ranked with highlighted
+    // snippets. Ranked pages are best effort: a note written by anyone between
+    // two requests changes the scores, and the next page may skip or repeat hits
+    @GetMapping("/fulltext")
+    public ResponseEntity<FullTextResponse> fullTextSearch(
+        @RequestParam String q,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "${app.notes.page-size:5}") int size) {
+
+        int pageSize = (size <= 0) ? defaultPageSize : Math.min(size, 100); // Cap at 100 for performance
+        SearchCursor searchCursor;
+        try {
+            searchCursor = (cursor == null || cursor.isEmpty()) ? null : SearchCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        Slice<NoteSearchHitDTO> hitSlice = noteSearchService.search(q, searchCursor, pageSize);
+        List<NoteSearchHitDTO> hits = hitSlice.getContent();
+        Map<Long, List<String>> tagNamesByNoteId = noteService.getTagNamesByNoteIds(
+            hits.stream().map(NoteSearchHitDTO::getId).collect(Collectors.toList()));
+        hits.forEach(hit -> hit.setTags(tagNamesByNoteId.getOrDefault(hit.getId(), new ArrayList<>())));
+
+        String nextCursor = null;
+        if (hitSlice.hasNext() && !hits.isEmpty()) {
+            nextCursor = noteSearchService.cursorAfter(hits.get(hits.size() - 1)).encode();
+        }
+        return ResponseEntity.ok(new FullTextResponse(hits, pageSize, nextCursor, hitSlice.hasNext()));
+    }
+
+    // Endpoint to get per-day note counts for the calendar view; pass from/to or
+    // month to fetch only the visible range
     @GetMapping("/dates")
-    public ResponseEntity<List<LocalDateTime>> getNoteDates() {
-        List<LocalDateTime> dates = noteService.getDistinctNoteDates();
-        return ResponseEntity.ok(dates);
+    public ResponseEntity<List<NoteDayCountDTO>> getNoteDates(
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+        @RequestParam(required = false) YearMonth month) {
+
+        if (month != null) {
+            from = month.atDay(1);
+            to = month.atEndOfMonth();
+        }
+        if (from == null) {
+            from = LocalDate.of(1970, 1, 1);
+        }
+        if (to == null) {
+            to = LocalDate.now().plusDays(1);
+        }
+        if (from.isAfter(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(noteService.getNoteDayCounts(from, to));
     }
 
-    // Endpoint to get statistics
+    // Endpoint to get statistics, served from the incrementally maintained per-user
+    // stats row
     @GetMapping("/statistics")
     public ResponseEntity<Map<String, Object>> getStatistics() {
+        return ResponseEntity.ok(toStatisticsMap(userStatsService.getStatistics()));
+    }
+
+    // Repair endpoint: recompute the current user's statistics from the notes and
+    // tags tables
+    @PostMapping("/statistics/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildStatistics() {
+        return ResponseEntity.ok(toStatisticsMap(userStatsService.rebuildCurrentUser()));
+    }
+
+    private Map<String, Object> toStatisticsMap(UserStats stats) {
         Map<String, Object> statistics = new HashMap<>();
-        statistics.put("totalNotes", noteService.getTotalNoteCount());
-        statistics.put("totalTags", noteService.getTotalTagCount());
+        statistics.put("totalNotes", stats.getNoteCount());
+        statistics.put("totalTags", stats.getTagCount());
 
-        LocalDateTime firstNoteDate = noteService.getFirstNoteDate();
+        LocalDateTime firstNoteDate = stats.getFirstNoteAt();
         if (firstNoteDate != null) {
-            long daysTracked = ChronoUnit.DAYS.between(firstNoteDate, LocalDateTime.now()) + 1; // +1 to include the first day
+            long daysTracked = ChronoUnit.DAYS.between(firstNoteDate.toLocalDate(), LocalDate.now()) + 1; // +1 to include the first day
             statistics.put("daysTracked", daysTracked);
             statistics.put("firstNoteDate", firstNoteDate);
+            statistics.put("lastNoteDate", stats.getLastNoteAt());
+            statistics.put("notesPerDay", (double) stats.getNoteCount() / daysTracked);
         } else {
             statistics.put("daysTracked", 0);
             statistics.put("firstNoteDate", null);
+            statistics.put("lastNoteDate", null);
+            statistics.put("notesPerDay", 0.0);
         }
+        return statistics;
+    }
+
+    private ResponseEntity.BodyBuilder withTotalHeaders(Page<?> page) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok().header(TOTAL_COUNT_HEADER, String.valueOf(page.getTotalElements()));
+        if (page.hasNext()) {
+            builder.header(TRUNCATED_HEADER, "true");
+        }
+        return builder;
+    }
 
-        return ResponseEntity.ok(statistics);
+    private String eTagOf(Note note) {
+        return "\"" + note.getVersion() + "\"";
+    }
+
+    // The version an If-Match header asks for; null if absent or "*". A value that
+    // is not one of our ETags can never match, so it becomes version -1.
+    private Long versionOf(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            return -1L;
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
     }
 
     private NoteDTO convertToDTO(Note note) {
         List<String> tagNames = note.getTags().stream()
             .map(Tag::getName)
             .collect(Collectors.toList());
+        return convertToDTO(note, tagNames);
+    }
+
+    // List endpoints load the tag names for all notes in one query to avoid N+1
+    // lazy loads. Package-private for NoteControllerBenchmark.
+    List<NoteDTO> convertToDTOs(List<Note> notes) {
+        return noteService.toDTOs(notes);
+    }
 
+    private NoteDTO convertToDTO(Note note, List<String> tagNames) {
         return new NoteDTO(
             note.getId(),
             note.getTitle(),
@@ -181,9 +484,76 @@ public class NoteController {
             tagNames);
     }
 
+    private boolean hasTagFilter(List<String> tags, List<String> exclude) {
+        return (tags != null && !tags.isEmpty()) || (exclude != null && !exclude.isEmpty());
+    }
+
+    private TagQuery toTagQuery(List<String> tags, String match, List<String> exclude) {
+        if ("all".equalsIgnoreCase(match)) {
+            return new TagQuery(tags, null, exclude);
+        }
+        return new TagQuery(null, tags, exclude);
+    }
+
+    private boolean isTooLong(String content) {
+        return content != null && content.length() > NoteBody.MAX_LENGTH;
+    }
+
+    private boolean isSummary(String view) {
+        return SUMMARY_VIEW.equalsIgnoreCase(view);
+    }
+
+    private <T> PaginatedResponse<T> toPaginatedResponse(Page<?> page, List<T> content) {
+        return new PaginatedResponse<>(
+            content,
+            page.getNumber(),
+            page.getSize(),
+            page.getTotalElements(),
+            page.getTotalPages(),
+            page.hasNext(),
+            page.hasPrevious());
+    }
+
+    // Throws IllegalArgumentException for an unknown zone or from after to
+    private NoteTimeRange toTimeRange(LocalDate from, LocalDate to, String tz) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("from is after to");
+        }
+        ZoneId zone;
+        try {
+            zone = (tz == null || tz.isEmpty()) ? ZoneId.systemDefault() : ZoneId.of(tz);
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Unknown time zone: " + tz, e);
+        }
+        return NoteTimeRange.ofDays(from, to, zone);
+    }
+
+    private CursorResponse<NoteDTO> toCursorResponse(Slice<Note> noteSlice, int pageSize, Long totalElements) {
+        List<Note> notes = noteSlice.getContent();
+        List<NoteDTO> noteDTOs = convertToDTOs(notes);
+
+        String nextCursor = null;
+        if (noteSlice.hasNext() && !notes.isEmpty()) {
+            Note last = notes.get(notes.size() - 1);
+            nextCursor = new NoteCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CursorResponse<>(noteDTOs, pageSize, nextCursor, noteSlice.hasNext(), totalElements);
+    }
+
+    private CursorResponse<NoteSummaryDTO> toSummaryCursorResponse(Slice<NoteSummaryDTO> summarySlice, int pageSize,
+        Long totalElements) {
+        List<NoteSummaryDTO> summaries = summarySlice.getContent();
+        String nextCursor = null;
+        if (summarySlice.hasNext() && !summaries.isEmpty()) {
+            NoteSummaryDTO last = summaries.get(summaries.size() - 1);
+            nextCursor = new NoteCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CursorResponse<>(summaries, pageSize, nextCursor, summarySlice.hasNext(), totalElements);
+    }
+
     // Inner class for paginated response
-    public static class PaginatedResponse {
-        private List<NoteDTO> content;
+    public static class PaginatedResponse<T> {
+        private List<T> content;
         private int currentPage;
         private int pageSize;
         private long totalElements;
@@ -191,7 +561,7 @@ public class NoteController {
         private boolean hasNext;
         private boolean hasPrevious;
 
-        public PaginatedResponse(List<NoteDTO> content, int currentPage, int pageSize,
+        public PaginatedResponse(List<T> content, int currentPage, int pageSize,
             long totalElements, int totalPages, boolean hasNext, boolean hasPrevious) {
             this.content = content;
             this.currentPage = currentPage;
@@ -203,11 +573,11 @@ public class NoteController {
         }
 
         // Getters and setters
-        public List<NoteDTO> getContent() {
+        public List<T> getContent() {
             return content;
         }
 
-        public void setContent(List<NoteDTO> content) {
+        public void setContent(List<T> content) {
             this.content = content;
         }
 
@@ -259,4 +629,111 @@ public class NoteController {
             this.hasPrevious = hasPrevious;
         }
     }
+
+    // Inner class for cursor-paginated response; totalElements is only set when
+    // requested
+    public static class CursorResponse<T> {
+        private List<T> content;
+        private int pageSize;
+        private String nextCursor;
+        private boolean hasNext;
+        private Long totalElements;
+
+        public CursorResponse(List<T> content, int pageSize, String nextCursor, boolean hasNext, Long totalElements) {
+            this.content = content;
+            this.pageSize = pageSize;
+            this.nextCursor = nextCursor;
+            this.hasNext = hasNext;
+            this.totalElements = totalElements;
+        }
+
+        // Getters and setters
+        public List<T> getContent() {
+            return content;
+        }
+
+        public void setContent(List<T> content) {
+            this.content = content;
+        }
+
+        public int getPageSize() {
+            return pageSize;
+        }
+
+        public void setPageSize(int pageSize) {
+            this.pageSize = pageSize;
+        }
+
+        public String getNextCursor() {
+            return nextCursor;
+        }
+
+        public void setNextCursor(String nextCursor) {
+            this.nextCursor = nextCursor;
+        }
+
+        public boolean isHasNext() {
+            return hasNext;
+        }
+
+        public void setHasNext(boolean hasNext) {
+            this.hasNext = hasNext;
+        }
+
+        public Long getTotalElements() {
+            return totalElements;
+        }
+
+        public void setTotalElements(Long totalElements) {
+            this.totalElements = totalElements;
+        }
+    }
+
+    // Inner class for full-text search response
+    public static class FullTextResponse {
+        private List<NoteSearchHitDTO> content;
+        private int pageSize;
+        private String nextCursor;
+        private boolean hasNext;
+
+        public FullTextResponse(List<NoteSearchHitDTO> content, int pageSize, String nextCursor, boolean hasNext) {
+            this.content = content;
+            this.pageSize = pageSize;
+            this.nextCursor = nextCursor;
+            this.hasNext = hasNext;
+        }
+
+        // Getters and setters
+        public List<NoteSearchHitDTO> getContent() {
+            return content;
+        }
+
+        public void setContent(List<NoteSearchHitDTO> content) {
+            this.content = content;
+        }
+
+        public int getPageSize() {
+            return pageSize;
+        }
+
+        public void setPageSize(int pageSize) {
+            this.pageSize = pageSize;
+        }
+
+        public String getNextCursor() {
+            return nextCursor;
+        }
+
+        public void setNextCursor(String nextCursor) {
+            this.nextCursor = nextCursor;
+        }
+
+        public boolean isHasNext() {
+            return hasNext;
+        }
+
+        public void setHasNext(boolean hasNext) {
+            this.hasNext = hasNext;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,95 @@
+package com.example.tagnote.controller;
+
+import com.example.tagnote.dto.SyncChangeDTO;
+import com.example.tagnote.dto.SyncCursor;
+import com.example.tagnote.service.SyncService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/sync")
+@CrossOrigin(origins = "*")
+public class SyncController {
+
+    private static final int DEFAULT_LIMIT = 500;
+    private static final int MAX_LIMIT = 1000;
+
+    @Autowired
+    private SyncService syncService;
+
+    // Notes and tags changed or deleted after `since`, in version order. since is
+    // a version number (0 for a full sync) or the nextSince of the previous
+    // response; keep calling with nextSince until hasMore is false.
+    @GetMapping("/changes")
+    public ResponseEntity<ChangesResponse> getChanges(
+        @RequestParam(defaultValue = "0") String since,
+        @RequestParam(defaultValue = "" + DEFAULT_LIMIT) int limit) {
+
+        int pageSize = (limit <= 0) ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+        SyncCursor cursor;
+        try {
+            cursor = SyncCursor.decode(since);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        Slice<SyncChangeDTO> changeSlice = syncService.getChangesAfter(cursor, pageSize);
+        // Read after the changes, so it is never behind the last one returned
+        long currentVersion = syncService.currentVersion();
+        List<SyncChangeDTO> changes = changeSlice.getContent();
+        String nextSince = changes.isEmpty() ? since : syncService.cursorAfter(changes.get(changes.size() - 1)).encode();
+        return ResponseEntity.ok(new ChangesResponse(changes, nextSince, changeSlice.hasNext(), currentVersion));
+    }
+
+    // Inner class for the change feed response
+    public static class ChangesResponse {
+        private List<SyncChangeDTO> changes;
+        private String nextSince;
+        private boolean hasMore;
+        private long currentVersion;
+
+        public ChangesResponse(List<SyncChangeDTO> changes, String nextSince, boolean hasMore, long currentVersion) {
+            this.changes = changes;
+            this.nextSince = nextSince;
+            this.hasMore = hasMore;
+            this.currentVersion = currentVersion;
+        }
+
+        // Getters and setters
+        public List<SyncChangeDTO> getChanges() {
+            return changes;
+        }
+
+        public void setChanges(List<SyncChangeDTO> changes) {
+            this.changes = changes;
+        }
+
+        public String getNextSince() {
+            return nextSince;
+        }
+
+        public void setNextSince(String nextSince) {
+            this.nextSince = nextSince;
+        }
+
+        public boolean isHasMore() {
+            return hasMore;
+        }
+
+        public void setHasMore(boolean hasMore) {
+            this.hasMore = hasMore;
+        }
+
+        public long getCurrentVersion() {
+            return currentVersion;
+        }
+
+        public void setCurrentVersion(long currentVersion) {
+            this.currentVersion = currentVersion;
+        }
+    }
+}
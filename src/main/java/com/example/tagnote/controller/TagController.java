@@ -1,10 +1,15 @@
 package com.example.tagnote.controller;
 
+import com.example.tagnote.dto.TagDeletionResultDTO;
 import com.example.tagnote.dto.TagDTO;
+import com.example.tagnote.dto.TagMergeResultDTO;
+import com.example.tagnote.dto.TagSuggestionDTO;
 import com.example.tagnote.entity.Tag;
 import com.example.tagnote.service.TagService;
 import com.example.tagnote.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -16,19 +21,32 @@ import java.util.stream.Collectors;
 @CrossOrigin(origins = "*")
 public class TagController {
 
+    private static final int MAX_SUGGESTIONS = 50;
+
     @Autowired
     private TagService tagService;
 
     @Autowired
     private UserService userService;
 
+    // sort=count lists the most used tags first, sort=recent the most recently used
+    // and sort=name alphabetically; without it tags are in creation order
     @GetMapping
-    public ResponseEntity<List<TagDTO>> getAllTags() {
-        List<Tag> tags = tagService.getAllTags();
+    public ResponseEntity<List<TagDTO>> getAllTags(@RequestParam(required = false) String sort) {
+        Sort order = toSort(sort);
+        List<Tag> tags = order.isSorted() ? tagService.getAllTags(order) : tagService.getAllTags();
         List<TagDTO> tagDTOs = tags.stream().map(this::convertToDTO).collect(Collectors.toList());
         return ResponseEntity.ok(tagDTOs);
     }
 
+    // Tag names starting with the prefix, or with a word starting with it, most
+    // used first; ignores case, accents and tone marks
+    @GetMapping("/suggest")
+    public ResponseEntity<List<TagSuggestionDTO>> suggestTags(@RequestParam(defaultValue = "") String prefix,
+        @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(tagService.suggestTags(prefix, Math.max(1, Math.min(limit, MAX_SUGGESTIONS))));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<TagDTO> getTagById(@PathVariable Long id) {
         return tagService.getTagById(id)
@@ -44,10 +62,55 @@ public class TagController {
         return ResponseEntity.ok(convertToDTO(savedTag));
     }
 
+    // Renames the tag; 409 if another tag already has the name, in which case the
+    // two can be merged instead
+    @PutMapping("/{id}")
+    public ResponseEntity<TagDTO> renameTag(@PathVariable Long id, @RequestBody TagDTO tagDTO) {
+        try {
+            return tagService.renameTag(id, tagDTO.getName())
+                .map(tag -> ResponseEntity.ok(convertToDTO(tag)))
+                .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    // Moves every note of the tag to the target tag and deletes it
+    @PostMapping("/{id}/merge/{targetId}")
+    public ResponseEntity<TagMergeResultDTO> mergeTags(@PathVariable Long id, @PathVariable Long targetId) {
+        try {
+            return tagService.mergeTags(id, targetId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Deletes the tag and its notes; with detach=true only the tag is removed and
+    // its notes are kept
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteTag(@PathVariable Long id) {
-        tagService.deleteTag(id);
-        return ResponseEntity.noContent().build();
+    public ResponseEntity<TagDeletionResultDTO> deleteTag(@PathVariable Long id,
+        @RequestParam(defaultValue = "false") boolean detach) {
+        return tagService.deleteTag(id, detach)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    private static Sort toSort(String sort) {
+        if ("count".equals(sort)) {
+            return Sort.by(Sort.Order.desc("noteCount"), Sort.Order.asc("name"));
+        }
+        if ("recent".equals(sort)) {
+            // Never used tags have no lastUsedAt; SQLite puts nulls last when descending
+            return Sort.by(Sort.Order.desc("lastUsedAt"), Sort.Order.asc("name"));
+        }
+        if ("name".equals(sort)) {
+            return Sort.by("name");
+        }
+        return Sort.unsorted();
     }
 
     private TagDTO convertToDTO(Tag tag) {
@@ -55,6 +118,8 @@ public class TagController {
             tag.getId(),
             tag.getName(),
             tag.getCreatedAt(),
-            tag.getUsername());
+            tag.getUsername(),
+            tag.getNoteCount(),
+            tag.getLastUsedAt());
     }
 }
\ No newline at end of file
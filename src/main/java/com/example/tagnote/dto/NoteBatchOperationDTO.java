@@ -0,0 +1,76 @@
+package com.example.tagnote.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One operation of a note batch. create takes title, content and tags; update
+ * replaces the title, content and tags of the note id; delete takes only the
+ * id; addTags and removeTags change only the tags of the note id.
+ */
+public class NoteBatchOperationDTO {
+
+    public static final String CREATE = "create";
+    public static final String UPDATE = "update";
+    public static final String DELETE = "delete";
+    public static final String ADD_TAGS = "addTags";
+    public static final String REMOVE_TAGS = "removeTags";
+
+    private String op;
+    private Long id;
+    private String title;
+    private String content;
+    private List<String> tags = new ArrayList<>();
+
+    public NoteBatchOperationDTO() {
+    }
+
+    public NoteBatchOperationDTO(String op, Long id, String title, String content, List<String> tags) {
+        this.op = op;
+        this.id = id;
+        this.title = title;
+        this.content = content;
+        this.tags = tags;
+    }
+
+    // Getters and setters
+    public String getOp() {
+        return op;
+    }
+
+    public void setOp(String op) {
+        this.op = op;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+    }
+
+    public List<String> getTags() {
+        return tags;
+    }
+
+    public void setTags(List<String> tags) {
+        this.tags = tags;
+    }
+}
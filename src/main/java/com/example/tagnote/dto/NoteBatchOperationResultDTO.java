@@ -0,0 +1,76 @@
+package com.example.tagnote.dto;
+
+public class NoteBatchOperationResultDTO {
+
+    public enum Status {
+        // Written
+        OK,
+        // Malformed, for example an update without an id or content that is too long
+        INVALID,
+        // No note with the id for this user
+        NOT_FOUND,
+        // Valid, but not written because the atomic batch had a failed operation
+        SKIPPED
+    }
+
+    // 0-based position in the request
+    private int index;
+    private String op;
+    private Status status;
+    // The note's id; for a written create, the new note's
+    private Long id;
+    // Why the operation failed, null otherwise
+    private String message;
+
+    public NoteBatchOperationResultDTO() {
+    }
+
+    public NoteBatchOperationResultDTO(int index, String op, Status status, Long id, String message) {
+        this.index = index;
+        this.op = op;
+        this.status = status;
+        this.id = id;
+        this.message = message;
+    }
+
+    // Getters and setters
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public String getOp() {
+        return op;
+    }
+
+    public void setOp(String op) {
+        this.op = op;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
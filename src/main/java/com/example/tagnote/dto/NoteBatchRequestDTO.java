@@ -0,0 +1,40 @@
+package com.example.tagnote.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class NoteBatchRequestDTO {
+
+    // Nothing is written unless every operation is valid
+    public static final String ATOMIC = "atomic";
+    // Valid operations are written, invalid ones are reported and skipped
+    public static final String BEST_EFFORT = "best-effort";
+
+    private String mode = ATOMIC;
+    private List<NoteBatchOperationDTO> operations = new ArrayList<>();
+
+    public NoteBatchRequestDTO() {
+    }
+
+    public NoteBatchRequestDTO(String mode, List<NoteBatchOperationDTO> operations) {
+        this.mode = mode;
+        this.operations = operations;
+    }
+
+    // Getters and setters
+    public String getMode() {
+        return mode;
+    }
+
+    public void setMode(String mode) {
+        this.mode = mode;
+    }
+
+    public List<NoteBatchOperationDTO> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(List<NoteBatchOperationDTO> operations) {
+        this.operations = operations;
+    }
+}
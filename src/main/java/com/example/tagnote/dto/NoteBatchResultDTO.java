@@ -0,0 +1,35 @@
+package com.example.tagnote.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class NoteBatchResultDTO {
+    // False if nothing was written: an atomic batch with a failed operation
+    private boolean committed;
+    private List<NoteBatchOperationResultDTO> results = new ArrayList<>();
+
+    public NoteBatchResultDTO() {
+    }
+
+    public NoteBatchResultDTO(boolean committed, List<NoteBatchOperationResultDTO> results) {
+        this.committed = committed;
+        this.results = results;
+    }
+
+    // Getters and setters
+    public boolean isCommitted() {
+        return committed;
+    }
+
+    public void setCommitted(boolean committed) {
+        this.committed = committed;
+    }
+
+    public List<NoteBatchOperationResultDTO> getResults() {
+        return results;
+    }
+
+    public void setResults(List<NoteBatchOperationResultDTO> results) {
+        this.results = results;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.tagnote.dto;
+
+import java.time.LocalDate;
+
+public class NoteDayCountDTO {
+    private LocalDate day;
+    private long noteCount;
+
+    public NoteDayCountDTO() {
+    }
+
+    public NoteDayCountDTO(LocalDate day, long noteCount) {
+        this.day = day;
+        this.noteCount = noteCount;
+    }
+
+    // Getters and setters
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public void setDay(LocalDate day) {
+        this.day = day;
+    }
+
+    public long getNoteCount() {
+        return noteCount;
+    }
+
+    public void setNoteCount(long noteCount) {
+        this.noteCount = noteCount;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.tagnote.dto;
+
+public class NoteImportErrorDTO {
+    // 1-based line for NDJSON, 1-based element position for a JSON array
+    private long line;
+    private String message;
+
+    public NoteImportErrorDTO() {
+    }
+
+    public NoteImportErrorDTO(long line, String message) {
+        this.line = line;
+        this.message = message;
+    }
+
+    // Getters and setters
+    public long getLine() {
+        return line;
+    }
+
+    public void setLine(long line) {
+        this.line = line;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.tagnote.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class NoteImportResultDTO {
+    private long imported;
+    private long failed;
+    private List<NoteImportErrorDTO> errors = new ArrayList<>();
+    // True when more lines failed than are listed in errors
+    private boolean errorsTruncated;
+
+    public NoteImportResultDTO() {
+    }
+
+    // Getters and setters
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public List<NoteImportErrorDTO> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<NoteImportErrorDTO> errors) {
+        this.errors = errors;
+    }
+
+    public boolean isErrorsTruncated() {
+        return errorsTruncated;
+    }
+
+    public void setErrorsTruncated(boolean errorsTruncated) {
+        this.errorsTruncated = errorsTruncated;
+    }
+}
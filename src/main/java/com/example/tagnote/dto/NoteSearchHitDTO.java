@@ -0,0 +1,73 @@
+package com.example.tagnote.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class NoteSearchHitDTO {
+    private Long id;
+    private String title;
+    private String snippet;
+    private Double score;
+    private LocalDateTime createdAt;
+    private List<String> tags;
+
+    public NoteSearchHitDTO() {
+    }
+
+    public NoteSearchHitDTO(Long id, String title, String snippet, Double score, LocalDateTime createdAt) {
+        this.id = id;
+        this.title = title;
+        this.snippet = snippet;
+        this.score = score;
+        this.createdAt = createdAt;
+    }
+
+    // Getters and setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getSnippet() {
+        return snippet;
+    }
+
+    public void setSnippet(String snippet) {
+        this.snippet = snippet;
+    }
+
+    public Double getScore() {
+        return score;
+    }
+
+    public void setScore(Double score) {
+        this.score = score;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public List<String> getTags() {
+        return tags;
+    }
+
+    public void setTags(List<String> tags) {
+        this.tags = tags;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.tagnote.dto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * List view of a note: the preview instead of the full content, which is only
+ * returned by GET /api/notes/{id}. Built by a constructor projection, so the
+ * content is never read from the database.
+ */
+public class NoteSummaryDTO {
+    private Long id;
+    private String title;
+    private String preview;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private List<String> tags = new ArrayList<>();
+
+    // The only constructor; its parameters are the columns the projection selects
+    public NoteSummaryDTO(Long id, String title, String preview, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.title = title;
+        this.preview = preview;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
+    // Getters and setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getPreview() {
+        return preview;
+    }
+
+    public void setPreview(String preview) {
+        this.preview = preview;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public List<String> getTags() {
+        return tags;
+    }
+
+    public void setTags(List<String> tags) {
+        this.tags = tags;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.tagnote.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque cursor for full-text search. Ranked searches continue after a (score,
+ * id) pair, which is best effort: scores change when any note is written, so a
+ * page may then skip or repeat hits. Substring scans, used when every term is
+ * too short for the index, continue after a (createdAt, id) pair like
+ * {@link NoteCursor} and are stable.
+ */
+public class SearchCursor {
+    private static final String SEPARATOR = "|";
+    private static final String RANKED = "s";
+    private static final String CHRONOLOGICAL = "t";
+
+    private final Double score;
+    private final LocalDateTime createdAt;
+    private final Long id;
+
+    private SearchCursor(Double score, LocalDateTime createdAt, Long id) {
+        this.score = score;
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public static SearchCursor ranked(double score, Long id) {
+        return new SearchCursor(score, null, id);
+    }
+
+    public static SearchCursor chronological(LocalDateTime createdAt, Long id) {
+        return new SearchCursor(null, createdAt, id);
+    }
+
+    public String encode() {
+        String raw = score != null
+            ? RANKED + SEPARATOR + score + SEPARATOR + id
+            : CHRONOLOGICAL + SEPARATOR + createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SearchCursor decode(String value) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid cursor: " + value);
+            }
+            Long id = Long.valueOf(parts[2]);
+            if (RANKED.equals(parts[0])) {
+                return ranked(Double.parseDouble(parts[1]), id);
+            }
+            if (CHRONOLOGICAL.equals(parts[0])) {
+                return chronological(LocalDateTime.parse(parts[1]), id);
+            }
+            throw new IllegalArgumentException("Invalid cursor: " + value);
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + value, e);
+        }
+    }
+
+    public Double getScore() {
+        return score;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.tagnote.dto;
+
+/**
+ * One entry of the change feed: the current state of a note or tag changed
+ * since the client's version, or the id of one that was deleted.
+ */
+public class SyncChangeDTO {
+
+    // Order of the changes within one version: tags before the notes that may
+    // reference them, note deletions before the tag deletions
+    public enum Kind {
+        TAG, NOTE, NOTE_DELETED, TAG_DELETED
+    }
+
+    public static final String TYPE_NOTE = "note";
+    public static final String TYPE_TAG = "tag";
+
+    private long version;
+    private String type;
+    private boolean deleted;
+    private Long id;
+    // Set for a changed note or tag, null when deleted
+    private NoteDTO note;
+    private TagDTO tag;
+
+    public SyncChangeDTO() {
+    }
+
+    public SyncChangeDTO(long version, String type, boolean deleted, Long id) {
+        this.version = version;
+        this.type = type;
+        this.deleted = deleted;
+        this.id = id;
+    }
+
+    // Getters and setters
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(boolean deleted) {
+        this.deleted = deleted;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public NoteDTO getNote() {
+        return note;
+    }
+
+    public void setNote(NoteDTO note) {
+        this.note = note;
+    }
+
+    public TagDTO getTag() {
+        return tag;
+    }
+
+    public void setTag(TagDTO tag) {
+        this.tag = tag;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.tagnote.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in a user's change feed, ordered by (version, kind, id). A write can
+ * change more rows than fit on one page, so the cursor records the last change
+ * returned and not just its version. A plain version number is accepted too and
+ * means "everything after this version".
+ */
+public class SyncCursor {
+    private static final String SEPARATOR = "|";
+
+    private final long version;
+    // Null when the whole version has been seen
+    private final SyncChangeDTO.Kind kind;
+    private final Long id;
+
+    public SyncCursor(long version, SyncChangeDTO.Kind kind, Long id) {
+        this.version = version;
+        this.kind = kind;
+        this.id = id;
+    }
+
+    public static SyncCursor afterVersion(long version) {
+        return new SyncCursor(version, null, null);
+    }
+
+    public String encode() {
+        if (kind == null) {
+            return Long.toString(version);
+        }
+        String raw = version + SEPARATOR + kind + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // An encoded cursor starts with the base64 of a digit, which is never itself a
+    // digit, so the two forms cannot be confused
+    public static SyncCursor decode(String value) {
+        try {
+            if (!value.isEmpty() && value.chars().allMatch(Character::isDigit)) {
+                return afterVersion(Long.parseLong(value));
+            }
+            String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid cursor: " + value);
+            }
+            return new SyncCursor(Long.parseLong(parts[0]), SyncChangeDTO.Kind.valueOf(parts[1]), Long.valueOf(parts[2]));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + value, e);
+        }
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public SyncChangeDTO.Kind getKind() {
+        return kind;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
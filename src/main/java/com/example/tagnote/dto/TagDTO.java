@@ -7,6 +7,9 @@ public class TagDTO {
     private String name;
     private LocalDateTime createdAt;
     private String username;
+    // Not part of sync changes, where they are null
+    private Long noteCount;
+    private LocalDateTime lastUsedAt;
 
     public TagDTO() {
     }
@@ -18,6 +21,12 @@ public class TagDTO {
         this.username = username;
     }
 
+    public TagDTO(Long id, String name, LocalDateTime createdAt, String username, Long noteCount, LocalDateTime lastUsedAt) {
+        this(id, name, createdAt, username);
+        this.noteCount = noteCount;
+        this.lastUsedAt = lastUsedAt;
+    }
+
     // Getters and setters
     public Long getId() {
         return id;
@@ -50,4 +59,20 @@ public class TagDTO {
     public void setUsername(String username) {
         this.username = username;
     }
-}
\ No newline at end of file
+
+    public Long getNoteCount() {
+        return noteCount;
+    }
+
+    public void setNoteCount(Long noteCount) {
+        this.noteCount = noteCount;
+    }
+
+    public LocalDateTime getLastUsedAt() {
+        return lastUsedAt;
+    }
+
+    public void setLastUsedAt(LocalDateTime lastUsedAt) {
+        this.lastUsedAt = lastUsedAt;
+    }
+}
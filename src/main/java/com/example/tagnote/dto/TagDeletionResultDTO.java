@@ -0,0 +1,41 @@
+package com.example.tagnote.dto;
+
+public class TagDeletionResultDTO {
+    private long noteTagLinksDeleted;
+    private long notesDeleted;
+    private long tagsDeleted;
+
+    public TagDeletionResultDTO() {
+    }
+
+    public TagDeletionResultDTO(long noteTagLinksDeleted, long notesDeleted, long tagsDeleted) {
+        this.noteTagLinksDeleted = noteTagLinksDeleted;
+        this.notesDeleted = notesDeleted;
+        this.tagsDeleted = tagsDeleted;
+    }
+
+    // Getters and setters
+    public long getNoteTagLinksDeleted() {
+        return noteTagLinksDeleted;
+    }
+
+    public void setNoteTagLinksDeleted(long noteTagLinksDeleted) {
+        this.noteTagLinksDeleted = noteTagLinksDeleted;
+    }
+
+    public long getNotesDeleted() {
+        return notesDeleted;
+    }
+
+    public void setNotesDeleted(long notesDeleted) {
+        this.notesDeleted = notesDeleted;
+    }
+
+    public long getTagsDeleted() {
+        return tagsDeleted;
+    }
+
+    public void setTagsDeleted(long tagsDeleted) {
+        this.tagsDeleted = tagsDeleted;
+    }
+}
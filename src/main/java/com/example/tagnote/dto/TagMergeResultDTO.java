@@ -0,0 +1,41 @@
+package com.example.tagnote.dto;
+
+public class TagMergeResultDTO {
+    private long noteTagLinksMoved;
+    private long noteTagLinksDropped;
+    private TagDTO target;
+
+    public TagMergeResultDTO() {
+    }
+
+    public TagMergeResultDTO(long noteTagLinksMoved, long noteTagLinksDropped, TagDTO target) {
+        this.noteTagLinksMoved = noteTagLinksMoved;
+        this.noteTagLinksDropped = noteTagLinksDropped;
+        this.target = target;
+    }
+
+    // Getters and setters
+    public long getNoteTagLinksMoved() {
+        return noteTagLinksMoved;
+    }
+
+    public void setNoteTagLinksMoved(long noteTagLinksMoved) {
+        this.noteTagLinksMoved = noteTagLinksMoved;
+    }
+
+    public long getNoteTagLinksDropped() {
+        return noteTagLinksDropped;
+    }
+
+    public void setNoteTagLinksDropped(long noteTagLinksDropped) {
+        this.noteTagLinksDropped = noteTagLinksDropped;
+    }
+
+    public TagDTO getTarget() {
+        return target;
+    }
+
+    public void setTarget(TagDTO target) {
+        this.target = target;
+    }
+}
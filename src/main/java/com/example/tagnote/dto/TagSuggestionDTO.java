@@ -0,0 +1,31 @@
+package com.example.tagnote.dto;
+
+public class TagSuggestionDTO {
+    private String name;
+    private long noteCount;
+
+    public TagSuggestionDTO() {
+    }
+
+    public TagSuggestionDTO(String name, long noteCount) {
+        this.name = name;
+        this.noteCount = noteCount;
+    }
+
+    // Getters and setters
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getNoteCount() {
+        return noteCount;
+    }
+
+    public void setNoteCount(long noteCount) {
+        this.noteCount = noteCount;
+    }
+}
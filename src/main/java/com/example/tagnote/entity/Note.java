@@ -1,12 +1,20 @@
 package com.example.tagnote.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.BatchSize;
+
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 
 @Entity
-@Table(name = "notes")
+@Table(name = "notes", indexes = {
+    @Index(name = "idx_notes_username_created_at_id", columnList = "username, created_at, id"),
+    @Index(name = "idx_notes_username_sync_version_id", columnList = "username, sync_version, id") })
 public class Note {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -15,9 +23,28 @@ public class Note {
     @Column(nullable = true)
     private String title;
 
-    @Column(length = 10000)
+    // Decoded from bodyEncoding/body/bodyChunks on first read and encoded again
+    // by setContent; see NoteBody
+    @Transient
     private String content;
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "body_encoding", nullable = false, length = 16)
+    private NoteBody.Encoding bodyEncoding = NoteBody.Encoding.PLAIN;
+
+    @Column(name = "body")
+    private byte[] body;
+
+    // Only loaded when the content of a CHUNKED note is read
+    @OneToMany(mappedBy = "note", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("seq")
+    @BatchSize(size = 50)
+    private List<NoteBodyChunk> bodyChunks = new ArrayList<>();
+
+    // Start of the visible text of content, for list views; see NoteText
+    @Column(length = 200)
+    private String preview;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -27,6 +54,16 @@ public class Note {
     @Column(name = "username")
     private String username;
 
+    // Version of the last write that changed the note, see SyncVersionService
+    @Column(name = "sync_version", nullable = false)
+    private long syncVersion;
+
+    // Optimistic lock for edits, also the note's ETag; bulk statements that change
+    // notes increment it themselves
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
     @ManyToMany(fetch = FetchType.LAZY, cascade = { CascadeType.PERSIST, CascadeType.MERGE })
     @JoinTable(name = "note_tags", joinColumns = @JoinColumn(name = "note_id"), inverseJoinColumns = @JoinColumn(name = "tag_id"))
     private Set<Tag> tags = new HashSet<>();
@@ -35,13 +72,13 @@ public class Note {
     }
 
     public Note(String content) {
-        this.content = content;
+        setContent(content);
         this.createdAt = LocalDateTime.now();
         this.updatedAt = LocalDateTime.now();
     }
 
     public Note(String content, String username) {
-        this.content = content;
+        setContent(content);
         this.username = username;
         this.createdAt = LocalDateTime.now();
         this.updatedAt = LocalDateTime.now();
@@ -76,11 +113,51 @@ public class Note {
     }
 
     public String getContent() {
+        if (content == null && (body != null || bodyEncoding == NoteBody.Encoding.CHUNKED)) {
+            List<byte[]> chunks = new ArrayList<>();
+            if (bodyEncoding == NoteBody.Encoding.CHUNKED) {
+                for (NoteBodyChunk chunk : bodyChunks) {
+                    chunks.add(chunk.getData());
+                }
+            }
+            content = NoteBody.decode(bodyEncoding, body, chunks);
+        }
         return content;
     }
 
     public void setContent(String content) {
+        // Keeps the stored chunks of an unchanged body instead of rewriting them
+        if (Objects.equals(content, getContent())) {
+            return;
+        }
         this.content = content;
+        NoteBody encoded = NoteBody.encode(content);
+        bodyEncoding = encoded.getEncoding();
+        body = encoded.getInline();
+        bodyChunks.clear();
+        for (byte[] chunk : encoded.getChunks()) {
+            bodyChunks.add(new NoteBodyChunk(this, bodyChunks.size(), chunk));
+        }
+    }
+
+    // Loads the chunks of a CHUNKED body, so getContent works once the note is
+    // detached; a no-op for other notes
+    public void initializeContent() {
+        if (bodyEncoding == NoteBody.Encoding.CHUNKED) {
+            Hibernate.initialize(bodyChunks);
+        }
+    }
+
+    public NoteBody.Encoding getBodyEncoding() {
+        return bodyEncoding;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public List<NoteBodyChunk> getBodyChunks() {
+        return bodyChunks;
     }
 
     public LocalDateTime getCreatedAt() {
@@ -124,4 +201,28 @@ public class Note {
     public void setUsername(String username) {
         this.username = username;
     }
-}
\ No newline at end of file
+
+    public long getSyncVersion() {
+        return syncVersion;
+    }
+
+    public void setSyncVersion(long syncVersion) {
+        this.syncVersion = syncVersion;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public String getPreview() {
+        return preview;
+    }
+
+    public void setPreview(String preview) {
+        this.preview = preview;
+    }
+}
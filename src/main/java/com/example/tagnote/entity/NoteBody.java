@@ -0,0 +1,136 @@
+package com.example.tagnote.entity;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Stored form of a note's content. Short content is kept as UTF-8, longer
+ * content is deflated, and content that is still large after compression is
+ * split into chunks stored in note_body_chunks, so the notes table stays small.
+ */
+public final class NoteBody {
+
+    public enum Encoding {
+        // UTF-8 in notes.body
+        PLAIN,
+        // Deflated UTF-8 in notes.body
+        DEFLATE,
+        // Deflated UTF-8 split over note_body_chunks; notes.body is null
+        CHUNKED
+    }
+
+    // Longest accepted content, in characters
+    public static final int MAX_LENGTH = 1_000_000;
+
+    // Below this many UTF-8 bytes compression saves too little to be worth it
+    static final int COMPRESS_THRESHOLD = 512;
+
+    // Compressed bodies up to this size stay in the notes row; larger ones are
+    // chunked
+    static final int INLINE_LIMIT = 32 * 1024;
+
+    static final int CHUNK_SIZE = 32 * 1024;
+
+    private final Encoding encoding;
+    private final byte[] inline;
+    private final List<byte[]> chunks;
+
+    private NoteBody(Encoding encoding, byte[] inline, List<byte[]> chunks) {
+        this.encoding = encoding;
+        this.inline = inline;
+        this.chunks = chunks;
+    }
+
+    public static NoteBody encode(String content) {
+        if (content == null) {
+            return new NoteBody(Encoding.PLAIN, null, List.of());
+        }
+        byte[] utf8 = content.getBytes(StandardCharsets.UTF_8);
+        if (utf8.length < COMPRESS_THRESHOLD) {
+            return new NoteBody(Encoding.PLAIN, utf8, List.of());
+        }
+        byte[] deflated = deflate(utf8);
+        if (deflated.length >= utf8.length) {
+            return new NoteBody(Encoding.PLAIN, utf8, List.of());
+        }
+        if (deflated.length <= INLINE_LIMIT) {
+            return new NoteBody(Encoding.DEFLATE, deflated, List.of());
+        }
+        List<byte[]> chunks = new ArrayList<>();
+        for (int offset = 0; offset < deflated.length; offset += CHUNK_SIZE) {
+            chunks.add(Arrays.copyOfRange(deflated, offset, Math.min(offset + CHUNK_SIZE, deflated.length)));
+        }
+        return new NoteBody(Encoding.CHUNKED, null, chunks);
+    }
+
+    // chunks are only read for CHUNKED, in sequence order
+    public static String decode(Encoding encoding, byte[] inline, List<byte[]> chunks) {
+        switch (encoding) {
+        case PLAIN:
+            return inline == null ? null : new String(inline, StandardCharsets.UTF_8);
+        case DEFLATE:
+            return new String(inflate(inline), StandardCharsets.UTF_8);
+        default:
+            ByteArrayOutputStream deflated = new ByteArrayOutputStream();
+            for (byte[] chunk : chunks) {
+                deflated.writeBytes(chunk);
+            }
+            return new String(inflate(deflated.toByteArray()), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater();
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] data) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 4);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int length = inflater.inflate(buffer);
+                if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Truncated note body");
+                }
+                out.write(buffer, 0, length);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt note body", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    public Encoding getEncoding() {
+        return encoding;
+    }
+
+    public byte[] getInline() {
+        return inline;
+    }
+
+    public List<byte[]> getChunks() {
+        return chunks;
+    }
+}
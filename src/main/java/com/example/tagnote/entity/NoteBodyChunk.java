@@ -0,0 +1,66 @@
+package com.example.tagnote.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * One piece of a CHUNKED note body, see {@link NoteBody}.
+ */
+@Entity
+@Table(name = "note_body_chunks", indexes = @Index(name = "idx_note_body_chunks_note_id_seq", columnList = "note_id, seq"))
+public class NoteBodyChunk {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "note_id", nullable = false)
+    private Note note;
+
+    @Column(name = "seq", nullable = false)
+    private int seq;
+
+    @Column(name = "data", nullable = false)
+    private byte[] data;
+
+    public NoteBodyChunk() {
+    }
+
+    public NoteBodyChunk(Note note, int seq, byte[] data) {
+        this.note = note;
+        this.seq = seq;
+        this.data = data;
+    }
+
+    // Getters and setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Note getNote() {
+        return note;
+    }
+
+    public void setNote(Note note) {
+        this.note = note;
+    }
+
+    public int getSeq() {
+        return seq;
+    }
+
+    public void setSeq(int seq) {
+        this.seq = seq;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public void setData(byte[] data) {
+        this.data = data;
+    }
+}
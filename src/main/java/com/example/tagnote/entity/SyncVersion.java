@@ -0,0 +1,43 @@
+package com.example.tagnote.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Per-user change counter for client sync. Each write transaction takes the
+ * next value and stamps it on everything it changes.
+ */
+@Entity
+@Table(name = "sync_versions")
+public class SyncVersion {
+    @Id
+    @Column(name = "username")
+    private String username;
+
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    public SyncVersion() {
+    }
+
+    public SyncVersion(String username, long version) {
+        this.username = username;
+        this.version = version;
+    }
+
+    // Getters and setters
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+}
@@ -6,13 +6,14 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "tags")
+@Table(name = "tags", uniqueConstraints = @UniqueConstraint(name = "ux_tags_username_name", columnNames = { "username",
+    "name" }), indexes = @Index(name = "idx_tags_username_sync_version_id", columnList = "username, sync_version, id"))
 public class Tag {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String name;
 
     @Column(name = "created_at")
@@ -21,6 +22,18 @@ public class Tag {
     @Column(name = "username")
     private String username;
 
+    // Version of the last write that changed the tag, see SyncVersionService
+    @Column(name = "sync_version", nullable = false)
+    private long syncVersion;
+
+    // Usage columns, written only by set-based statements on note writes (see
+    // TagRepositoryCustom.addUsage), never by Hibernate
+    @Column(name = "note_count", nullable = false, insertable = false, updatable = false)
+    private long noteCount;
+
+    @Column(name = "last_used_at", insertable = false, updatable = false)
+    private LocalDateTime lastUsedAt;
+
     @ManyToMany(mappedBy = "tags", fetch = FetchType.LAZY)
     private Set<Note> notes = new HashSet<>();
 
@@ -83,4 +96,28 @@ public class Tag {
     public void setUsername(String username) {
         this.username = username;
     }
-}
\ No newline at end of file
+
+    public long getSyncVersion() {
+        return syncVersion;
+    }
+
+    public void setSyncVersion(long syncVersion) {
+        this.syncVersion = syncVersion;
+    }
+
+    public long getNoteCount() {
+        return noteCount;
+    }
+
+    public void setNoteCount(long noteCount) {
+        this.noteCount = noteCount;
+    }
+
+    public LocalDateTime getLastUsedAt() {
+        return lastUsedAt;
+    }
+
+    public void setLastUsedAt(LocalDateTime lastUsedAt) {
+        this.lastUsedAt = lastUsedAt;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.tagnote.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Per-user dashboard counters, kept current by note and tag writes in the same
+ * transaction.
+ */
+@Entity
+@Table(name = "user_stats")
+public class UserStats {
+    @Id
+    @Column(name = "username")
+    private String username;
+
+    @Column(name = "note_count", nullable = false)
+    private long noteCount;
+
+    @Column(name = "tag_count", nullable = false)
+    private long tagCount;
+
+    @Column(name = "first_note_at")
+    private LocalDateTime firstNoteAt;
+
+    @Column(name = "last_note_at")
+    private LocalDateTime lastNoteAt;
+
+    public UserStats() {
+    }
+
+    public UserStats(String username) {
+        this.username = username;
+    }
+
+    // Getters and setters
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public long getNoteCount() {
+        return noteCount;
+    }
+
+    public void setNoteCount(long noteCount) {
+        this.noteCount = noteCount;
+    }
+
+    public long getTagCount() {
+        return tagCount;
+    }
+
+    public void setTagCount(long tagCount) {
+        this.tagCount = tagCount;
+    }
+
+    public LocalDateTime getFirstNoteAt() {
+        return firstNoteAt;
+    }
+
+    public void setFirstNoteAt(LocalDateTime firstNoteAt) {
+        this.firstNoteAt = firstNoteAt;
+    }
+
+    public LocalDateTime getLastNoteAt() {
+        return lastNoteAt;
+    }
+
+    public void setLastNoteAt(LocalDateTime lastNoteAt) {
+        this.lastNoteAt = lastNoteAt;
+    }
+}
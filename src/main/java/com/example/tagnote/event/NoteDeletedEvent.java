@@ -0,0 +1,30 @@
+package com.example.tagnote.event;
+
+import java.util.Set;
+
+/**
+ * Published when a note is deleted, with the tags it carried at the time.
+ */
+public class NoteDeletedEvent {
+    private final String username;
+    private final Long noteId;
+    private final Set<String> tagNames;
+
+    public NoteDeletedEvent(String username, Long noteId, Set<String> tagNames) {
+        this.username = username;
+        this.noteId = noteId;
+        this.tagNames = tagNames;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public Long getNoteId() {
+        return noteId;
+    }
+
+    public Set<String> getTagNames() {
+        return tagNames;
+    }
+}
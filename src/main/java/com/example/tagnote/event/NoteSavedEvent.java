@@ -0,0 +1,44 @@
+package com.example.tagnote.event;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Published when a note is created or updated. {@code previousTagNames} is
+ * empty for a new note and null when the previous tags are unknown.
+ */
+public class NoteSavedEvent {
+    private final String username;
+    private final Long noteId;
+    private final LocalDateTime createdAt;
+    private final Set<String> previousTagNames;
+    private final Set<String> tagNames;
+
+    public NoteSavedEvent(String username, Long noteId, LocalDateTime createdAt, Set<String> previousTagNames, Set<String> tagNames) {
+        this.username = username;
+        this.noteId = noteId;
+        this.createdAt = createdAt;
+        this.previousTagNames = previousTagNames;
+        this.tagNames = tagNames;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public Long getNoteId() {
+        return noteId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public Set<String> getPreviousTagNames() {
+        return previousTagNames;
+    }
+
+    public Set<String> getTagNames() {
+        return tagNames;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.tagnote.event;
+
+/**
+ * Published when a tag is deleted. With {@code notesDeleted} its notes were
+ * deleted too, along with tags left without notes, which like
+ * {@link TagsChangedEvent} is not described note by note; otherwise only the
+ * tag and its links are gone.
+ */
+public class TagDeletedEvent {
+    private final String username;
+    private final String tagName;
+    private final boolean notesDeleted;
+
+    public TagDeletedEvent(String username, String tagName, boolean notesDeleted) {
+        this.username = username;
+        this.tagName = tagName;
+        this.notesDeleted = notesDeleted;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getTagName() {
+        return tagName;
+    }
+
+    public boolean isNotesDeleted() {
+        return notesDeleted;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.tagnote.event;
+
+/**
+ * Published after a bulk change to a user's tags or tag assignments that is not
+ * described note by note. Listeners holding derived per-user state should drop
+ * it and rebuild it from the database.
+ */
+public class TagsChangedEvent {
+    private final String username;
+
+    public TagsChangedEvent(String username) {
+        this.username = username;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.tagnote.event;
+
+import java.util.List;
+
+/**
+ * Published when new tags are created for a user, whether directly or while
+ * saving a note. The notes themselves are described by {@link NoteSavedEvent}.
+ */
+public class TagsCreatedEvent {
+    private final String username;
+    private final List<String> tagNames;
+
+    public TagsCreatedEvent(String username, List<String> tagNames) {
+        this.username = username;
+        this.tagNames = tagNames;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public List<String> getTagNames() {
+        return tagNames;
+    }
+}
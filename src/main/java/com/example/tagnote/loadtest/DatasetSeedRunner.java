@@ -0,0 +1,118 @@
+package com.example.tagnote.loadtest;
+
+import com.example.tagnote.dto.NoteDTO;
+import com.example.tagnote.dto.NoteImportResultDTO;
+import com.example.tagnote.service.NoteImportService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Load test seeding: start the application with the {@code loadtest} profile
+ * and {@code --seed-dataset} to add {@code app.seed.users} users with
+ * {@code app.seed.notes-per-user} notes each before the server starts serving.
+ * Notes go through the bulk import, generated one line at a time.
+ */
+@Profile("loadtest")
+@Component
+public class DatasetSeedRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatasetSeedRunner.class);
+
+    @Autowired
+    private NoteImportService noteImportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.seed.users:10}")
+    private int users;
+
+    @Value("${app.seed.notes-per-user:1000}")
+    private int notesPerUser;
+
+    @Value("${app.seed.tags:500}")
+    private int tags;
+
+    @Value("${app.seed.days:730}")
+    private int days;
+
+    @Value("${app.seed.random-seed:1}")
+    private long randomSeed;
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        if (!args.containsOption("seed-dataset")) {
+            return;
+        }
+        Random random = new Random(randomSeed);
+        LoadTestDataset.Zipf zipf = new LoadTestDataset.Zipf(tags, LoadTestDataset.TAG_EXPONENT);
+        LocalDateTime now = LocalDateTime.now();
+        long started = System.nanoTime();
+        try {
+            for (int user = 0; user < users; user++) {
+                String username = LoadTestDataset.username(user);
+                authenticate(username);
+                NoteImportResultDTO result = noteImportService.importNotes(notes(random, zipf, now));
+                logger.info("Seeded {} notes for {}, {} failed", result.getImported(), username, result.getFailed());
+            }
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        logger.info("Seeded {} users with {} notes each in {} s", users, notesPerUser, (System.nanoTime() - started) / 1_000_000_000);
+    }
+
+    // NDJSON produced as the import reads it, so memory use does not depend on
+    // the number of notes
+    private InputStream notes(Random random, LoadTestDataset.Zipf zipf, LocalDateTime now) {
+        return new SequenceInputStream(new Enumeration<InputStream>() {
+            private int written;
+
+            @Override
+            public boolean hasMoreElements() {
+                return written < notesPerUser;
+            }
+
+            @Override
+            public InputStream nextElement() {
+                written++;
+                LocalDateTime createdAt = LoadTestDataset.randomCreatedAt(random, now, days);
+                NoteDTO note = new NoteDTO(null, LoadTestDataset.randomTitle(random), LoadTestDataset.randomContent(random),
+                    createdAt, createdAt, null, LoadTestDataset.randomTags(random, zipf));
+                try {
+                    return new ByteArrayInputStream((objectMapper.writeValueAsString(note) + "\n").getBytes(StandardCharsets.UTF_8));
+                } catch (JsonProcessingException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        });
+    }
+
+    private void authenticate(String username) {
+        List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("OIDC_USER"));
+        User user = new User(username, "", authorities);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(user, null, authorities));
+    }
+}
@@ -0,0 +1,302 @@
+package com.example.tagnote.loadtest;
+
+import com.example.tagnote.config.LoadTestSecurityConfig;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Mixed read/write HTTP workload against a server started with the
+ * {@code loadtest} profile and seeded with {@code --seed-dataset}. Worker
+ * threads send requests back to back as random seeded users; after the warmup,
+ * each request's latency goes into an HDR histogram for its endpoint. Prints
+ * throughput and p50/p95/p99 per endpoint and writes each endpoint's percentile
+ * distribution to {@code <output>/<ENDPOINT>.hgrm}.
+ *
+ * <pre>
+ * LoadDriver [--base-url=http://localhost:8080] [--users=10] [--tags=500] [--threads=8]
+ *            [--duration=60] [--warmup=10] [--write-percent=10] [--output=target/load-test] [--random-seed=1]
+ * </pre>
+ */
+public final class LoadDriver {
+
+    enum Operation {
+        LIST_PAGE("GET /api/notes/paginated", 25),
+        LIST_CURSOR("GET /api/notes/cursor", 15),
+        SEARCH_TAGS("GET /api/notes/search/paginated", 20),
+        GET_NOTE("GET /api/notes/{id}", 15),
+        LIST_TAGS("GET /api/tags", 10),
+        STATISTICS("GET /api/notes/statistics", 5),
+        // Writes are picked by --write-percent, half creates and half updates
+        CREATE_NOTE("POST /api/notes", 0),
+        UPDATE_NOTE("PUT /api/notes/{id}", 0);
+
+        private final String endpoint;
+        private final int readWeight;
+
+        Operation(String endpoint, int readWeight) {
+            this.endpoint = endpoint;
+            this.readWeight = readWeight;
+        }
+    }
+
+    private static final int PAGE_SIZE = 20;
+
+    // Note ids per user the driver reads and updates; created notes are added
+    // up to this many
+    private static final int MAX_KNOWN_NOTES = 1000;
+
+    // Latencies are recorded in microseconds, up to one minute
+    private static final long HIGHEST_LATENCY_MICROS = 60_000_000L;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(10))
+        .build();
+
+    private final String baseUrl;
+    private final int users;
+    private final int threads;
+    private final int durationSeconds;
+    private final int warmupSeconds;
+    private final int writePercent;
+    private final Path output;
+    private final long randomSeed;
+    private final LoadTestDataset.Zipf tagZipf;
+    // Earlier pages are requested more often
+    private final LoadTestDataset.Zipf pageZipf = new LoadTestDataset.Zipf(10, 1.0);
+    private final Map<String, List<Long>> noteIdsByUser = new HashMap<>();
+
+    private LoadDriver(Map<String, String> options) {
+        baseUrl = options.getOrDefault("base-url", "http://localhost:8080");
+        users = Integer.parseInt(options.getOrDefault("users", "10"));
+        threads = Integer.parseInt(options.getOrDefault("threads", "8"));
+        durationSeconds = Integer.parseInt(options.getOrDefault("duration", "60"));
+        warmupSeconds = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        writePercent = Integer.parseInt(options.getOrDefault("write-percent", "10"));
+        output = Path.of(options.getOrDefault("output", "target/load-test"));
+        randomSeed = Long.parseLong(options.getOrDefault("random-seed", "1"));
+        tagZipf = new LoadTestDataset.Zipf(Integer.parseInt(options.getOrDefault("tags", "500")), LoadTestDataset.TAG_EXPONENT);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        new LoadDriver(options).run();
+    }
+
+    private void run() throws Exception {
+        for (int user = 0; user < users; user++) {
+            String username = LoadTestDataset.username(user);
+            noteIdsByUser.put(username, new CopyOnWriteArrayList<>(loadNoteIds(username)));
+        }
+        System.out.printf("%d users, %d threads, %d s warmup, %d s measured, %d%% writes%n", users, threads, warmupSeconds,
+            durationSeconds, writePercent);
+
+        long measureFrom = System.nanoTime() + warmupSeconds * 1_000_000_000L;
+        long end = measureFrom + durationSeconds * 1_000_000_000L;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Worker>> futures = new ArrayList<>();
+        for (int thread = 0; thread < threads; thread++) {
+            Worker worker = new Worker(new Random(randomSeed + thread), measureFrom, end);
+            futures.add(executor.submit(() -> {
+                worker.run();
+                return worker;
+            }));
+        }
+        Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+        Map<Operation, Long> errors = new EnumMap<>(Operation.class);
+        for (Future<Worker> future : futures) {
+            Worker worker = future.get();
+            worker.histograms.forEach((operation, histogram) -> histograms.merge(operation, histogram, (a, b) -> {
+                a.add(b);
+                return a;
+            }));
+            worker.errors.forEach((operation, count) -> errors.merge(operation, count, Long::sum));
+        }
+        executor.shutdown();
+        report(histograms, errors);
+    }
+
+    private List<Long> loadNoteIds(String username) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(request(username, "/api/notes/cursor?view=summary&size=" + MAX_KNOWN_NOTES)
+            .GET().build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Could not list the notes of " + username + ": HTTP " + response.statusCode());
+        }
+        List<Long> ids = new ArrayList<>();
+        for (JsonNode note : objectMapper.readTree(response.body()).path("content")) {
+            ids.add(note.path("id").asLong());
+        }
+        if (ids.isEmpty()) {
+            throw new IllegalStateException(username + " has no notes; start the server with --seed-dataset first");
+        }
+        return ids;
+    }
+
+    private HttpRequest.Builder request(String username, String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .timeout(Duration.ofSeconds(60))
+            .header(LoadTestSecurityConfig.USER_HEADER, username);
+    }
+
+    private class Worker {
+        private final Random random;
+        private final long measureFrom;
+        private final long end;
+        private final Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+        private final Map<Operation, Long> errors = new EnumMap<>(Operation.class);
+
+        Worker(Random random, long measureFrom, long end) {
+            this.random = random;
+            this.measureFrom = measureFrom;
+            this.end = end;
+        }
+
+        void run() throws Exception {
+            while (System.nanoTime() < end) {
+                String username = LoadTestDataset.username(random.nextInt(users));
+                Operation operation = pick();
+                HttpRequest request = build(operation, username);
+                long start = System.nanoTime();
+                HttpResponse<String> response = null;
+                try {
+                    response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                } catch (IOException e) {
+                    // Counted as an error below
+                }
+                long latencyMicros = (System.nanoTime() - start) / 1000;
+                boolean ok = response != null && response.statusCode() / 100 == 2;
+                if (start >= measureFrom) {
+                    histograms.computeIfAbsent(operation, key -> new Histogram(HIGHEST_LATENCY_MICROS, 3))
+                        .recordValue(Math.min(latencyMicros, HIGHEST_LATENCY_MICROS));
+                    if (!ok) {
+                        errors.merge(operation, 1L, Long::sum);
+                    }
+                }
+                if (ok && operation == Operation.CREATE_NOTE) {
+                    List<Long> noteIds = noteIdsByUser.get(username);
+                    if (noteIds.size() < MAX_KNOWN_NOTES) {
+                        noteIds.add(objectMapper.readTree(response.body()).path("id").asLong());
+                    }
+                }
+            }
+        }
+
+        private Operation pick() {
+            if (random.nextInt(100) < writePercent) {
+                return random.nextBoolean() ? Operation.CREATE_NOTE : Operation.UPDATE_NOTE;
+            }
+            int totalWeight = 0;
+            for (Operation operation : Operation.values()) {
+                totalWeight += operation.readWeight;
+            }
+            int roll = random.nextInt(totalWeight);
+            for (Operation operation : Operation.values()) {
+                roll -= operation.readWeight;
+                if (roll < 0) {
+                    return operation;
+                }
+            }
+            throw new IllegalStateException();
+        }
+
+        private HttpRequest build(Operation operation, String username) throws IOException {
+            return switch (operation) {
+            case LIST_PAGE -> request(username, "/api/notes/paginated?size=" + PAGE_SIZE + "&page=" + pageZipf.sample(random))
+                .GET().build();
+            case LIST_CURSOR -> request(username, "/api/notes/cursor?size=" + PAGE_SIZE).GET().build();
+            case SEARCH_TAGS -> request(username, "/api/notes/search/paginated?size=" + PAGE_SIZE + "&tags="
+                + URLEncoder.encode(LoadTestDataset.tagName(tagZipf.sample(random)), StandardCharsets.UTF_8)).GET().build();
+            case GET_NOTE -> request(username, "/api/notes/" + randomNoteId(username)).GET().build();
+            case LIST_TAGS -> request(username, "/api/tags").GET().build();
+            case STATISTICS -> request(username, "/api/notes/statistics").GET().build();
+            case CREATE_NOTE -> request(username, "/api/notes")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(noteJson()))
+                .build();
+            case UPDATE_NOTE -> request(username, "/api/notes/" + randomNoteId(username))
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(noteJson()))
+                .build();
+            };
+        }
+
+        private long randomNoteId(String username) {
+            List<Long> noteIds = noteIdsByUser.get(username);
+            return noteIds.get(random.nextInt(noteIds.size()));
+        }
+
+        private String noteJson() throws IOException {
+            Map<String, Object> note = new LinkedHashMap<>();
+            note.put("title", LoadTestDataset.randomTitle(random));
+            note.put("content", LoadTestDataset.randomContent(random));
+            note.put("tags", LoadTestDataset.randomTags(random, tagZipf));
+            return objectMapper.writeValueAsString(note);
+        }
+    }
+
+    private void report(Map<Operation, Histogram> histograms, Map<Operation, Long> errors) throws IOException {
+        Files.createDirectories(output);
+        Histogram all = new Histogram(HIGHEST_LATENCY_MICROS, 3);
+        long allErrors = 0;
+        System.out.printf("%-34s %9s %7s %9s %9s %9s %9s %9s%n", "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms",
+            "p99 ms", "max ms");
+        for (Map.Entry<Operation, Histogram> entry : histograms.entrySet()) {
+            long operationErrors = errors.getOrDefault(entry.getKey(), 0L);
+            printRow(entry.getKey().endpoint, entry.getValue(), operationErrors);
+            writeDistribution(entry.getKey().name(), entry.getValue());
+            all.add(entry.getValue());
+            allErrors += operationErrors;
+        }
+        printRow("all", all, allErrors);
+        writeDistribution("ALL", all);
+        System.out.println("Percentile distributions written to " + output.toAbsolutePath());
+    }
+
+    private void printRow(String endpoint, Histogram histogram, long errors) {
+        System.out.printf("%-34s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n", endpoint, histogram.getTotalCount(), errors,
+            histogram.getTotalCount() / (double) durationSeconds, millis(histogram.getValueAtPercentile(50)),
+            millis(histogram.getValueAtPercentile(95)), millis(histogram.getValueAtPercentile(99)), millis(histogram.getMaxValue()));
+    }
+
+    private void writeDistribution(String name, Histogram histogram) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(output.resolve(name + ".hgrm")), false, StandardCharsets.UTF_8)) {
+            // Values in milliseconds
+            histogram.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.tagnote.loadtest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The synthetic corpus shared by the seeder and the load driver: user names, a
+ * tag vocabulary of Chinese and ASCII names used with Zipfian frequencies, and
+ * note text. Tag rank 0 is the most used tag.
+ */
+public final class LoadTestDataset {
+
+    // Exponent of the tag rank distribution; around 1 as for words in text
+    public static final double TAG_EXPONENT = 1.07;
+
+    private static final String[] ASCII_WORDS = { "work", "todo", "reading", "java", "spring", "sqlite", "travel",
+        "recipe", "finance", "health", "project", "meeting", "idea", "book", "movie", "music", "design", "release",
+        "bug", "review", "family", "shopping", "garden", "fitness", "english", "interview", "research", "draft",
+        "archive", "weekly" };
+
+    private static final String[] CHINESE_WORDS = { "工作", "学习", "读书", "笔记", "旅行", "菜谱", "理财", "健康", "项目", "会议",
+        "想法", "电影", "音乐", "设计", "生活", "家庭", "购物", "运动", "英语", "面试", "研究", "草稿", "周报", "计划", "总结",
+        "日记", "技术", "灵感", "待办", "收藏" };
+
+    private static final String[] TEXT_WORDS = { "the", "note", "today", "meeting", "draft", "review", "plan", "cache",
+        "index", "query", "release", "idea", "需要", "今天", "讨论", "完成", "问题", "方案", "记录", "明天", "数据", "测试" };
+
+    private LoadTestDataset() {
+    }
+
+    public static String username(int index) {
+        return String.format("load-user-%03d", index);
+    }
+
+    // Alternates ASCII and Chinese names; past the word lists a number is
+    // appended, so every rank has a distinct name
+    public static String tagName(int rank) {
+        String[] words = rank % 2 == 0 ? ASCII_WORDS : CHINESE_WORDS;
+        int index = rank / 2;
+        String word = words[index % words.length];
+        int round = index / words.length;
+        return round == 0 ? word : word + "-" + round;
+    }
+
+    // Up to five distinct tags drawn from the Zipf distribution; most notes have
+    // one to three
+    public static List<String> randomTags(Random random, Zipf zipf) {
+        double roll = random.nextDouble();
+        int count = roll < 0.1 ? 0 : roll < 0.4 ? 1 : roll < 0.7 ? 2 : roll < 0.85 ? 3 : roll < 0.95 ? 4 : 5;
+        List<String> tags = new ArrayList<>(count);
+        for (int attempt = 0; tags.size() < count && attempt < count * 10; attempt++) {
+            String tag = tagName(zipf.sample(random));
+            if (!tags.contains(tag)) {
+                tags.add(tag);
+            }
+        }
+        return tags;
+    }
+
+    public static String randomTitle(Random random) {
+        return words(random, 2 + random.nextInt(5));
+    }
+
+    // HTML paragraphs with a log-normal length around 800 characters
+    public static String randomContent(Random random) {
+        int length = (int) Math.min(20000, Math.max(50, 800 * Math.exp(random.nextGaussian() * 0.8)));
+        StringBuilder content = new StringBuilder(length + 64);
+        while (content.length() < length) {
+            content.append("<p>").append(words(random, 8 + random.nextInt(24))).append("</p>");
+        }
+        return content.toString();
+    }
+
+    // Within the last `days` days, denser towards now, mostly during the day
+    public static LocalDateTime randomCreatedAt(Random random, LocalDateTime now, int days) {
+        double age = random.nextDouble();
+        LocalDateTime day = now.toLocalDate().minusDays((long) (age * age * days)).atStartOfDay();
+        int minuteOfDay = (int) Math.min(1439, Math.max(0, (14 + random.nextGaussian() * 4) * 60));
+        LocalDateTime createdAt = day.plusMinutes(minuteOfDay);
+        return createdAt.isAfter(now) ? now : createdAt;
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(TEXT_WORDS[random.nextInt(TEXT_WORDS.length)]);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Zipf distribution over ranks 0 to size - 1: rank k is drawn with probability
+     * proportional to 1 / (k + 1)^exponent.
+     */
+    public static final class Zipf {
+        private final double[] cumulative;
+
+        public Zipf(int size, double exponent) {
+            cumulative = new double[size];
+            double sum = 0;
+            for (int k = 0; k < size; k++) {
+                sum += 1 / Math.pow(k + 1, exponent);
+                cumulative[k] = sum;
+            }
+            for (int k = 0; k < size; k++) {
+                cumulative[k] /= sum;
+            }
+        }
+
+        public int sample(Random random) {
+            double value = random.nextDouble();
+            int low = 0;
+            int high = cumulative.length - 1;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (cumulative[middle] < value) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
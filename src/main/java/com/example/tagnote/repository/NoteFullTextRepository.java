@@ -0,0 +1,144 @@
+package com.example.tagnote.repository;
+
+import com.example.tagnote.dto.NoteSearchHitDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Access to the notes_fts FTS5 table. The trigram tokenizer indexes every
+ * three-character window, so Chinese text (which has no word separators) is
+ * searchable by substring without a dictionary.
+ */
+@Repository
+public class NoteFullTextRepository {
+
+    // Markers from the Unicode private use area; the service turns them into <mark>
+    // after HTML-escaping the snippet
+    public static final String HIGHLIGHT_START = "\uE000";
+    public static final String HIGHLIGHT_END = "\uE001";
+
+    // Title matches weigh more than content matches
+    private static final String SCORE = "bm25(notes_fts, 10.0, 1.0)";
+
+    private static final String MATCH_SELECT = "SELECT f.rowid AS id, " + SCORE + " AS score, "
+        + "snippet(notes_fts, 0, '" + HIGHLIGHT_START + "', '" + HIGHLIGHT_END + "', '…', 16) AS title_snippet, "
+        + "snippet(notes_fts, 1, '" + HIGHLIGHT_START + "', '" + HIGHLIGHT_END + "', '…', 32) AS content_snippet, "
+        + "n.created_at AS created_at "
+        + "FROM notes_fts f JOIN notes n ON n.id = f.rowid "
+        + "WHERE notes_fts MATCH ? AND f.username = ? ";
+
+    private static final String SCAN_SELECT = "SELECT f.rowid AS id, NULL AS score, f.title AS title_snippet, f.content AS content_snippet, "
+        + "n.created_at AS created_at "
+        + "FROM notes n JOIN notes_fts f ON f.rowid = n.id "
+        + "WHERE n.username = ? ";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public long count() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notes_fts", Long.class);
+        return count == null ? 0 : count;
+    }
+
+    public void save(Long id, String username, String title, String content) {
+        jdbcTemplate.update("DELETE FROM notes_fts WHERE rowid = ?", id);
+        jdbcTemplate.update("INSERT INTO notes_fts (rowid, title, content, username) VALUES (?, ?, ?, ?)", id, title, content, username);
+    }
+
+    public void saveAll(List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("INSERT INTO notes_fts (rowid, title, content, username) VALUES (?, ?, ?, ?)", rows);
+    }
+
+    public void deleteById(Long id) {
+        jdbcTemplate.update("DELETE FROM notes_fts WHERE rowid = ?", id);
+    }
+
+    public void deleteAllById(Collection<Long> ids) {
+        List<Object[]> rows = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            rows.add(new Object[] { id });
+        }
+        jdbcTemplate.batchUpdate("DELETE FROM notes_fts WHERE rowid = ?", rows);
+    }
+
+    public int deleteByTagId(Long tagId) {
+        return jdbcTemplate.update("DELETE FROM notes_fts WHERE rowid IN (SELECT note_id FROM note_tags WHERE tag_id = ?)", tagId);
+    }
+
+    /**
+     * BM25-ranked search. Results are ordered by (score, id); a non-null
+     * afterScore/afterId continues after that hit. Terms too short for the trigram
+     * index are applied as substring filters.
+     * <p>
+     * bm25 takes its term frequencies and average length from the whole table,
+     * every user's rows included, so any write between two pages shifts all
+     * scores and the next page may skip or repeat hits. MATCH also runs over all
+     * users' postings before the UNINDEXED username column filters them.
+     */
+    public List<NoteSearchHitDTO> search(String username, String matchExpression, List<String> shortTerms, Double afterScore,
+        Long afterId, int limit) {
+        StringBuilder sql = new StringBuilder(MATCH_SELECT);
+        List<Object> args = new ArrayList<>();
+        args.add(matchExpression);
+        args.add(username);
+        appendShortTermFilters(sql, args, shortTerms);
+        if (afterScore != null && afterId != null) {
+            sql.append("AND (" + SCORE + " > ? OR (" + SCORE + " = ? AND f.rowid > ?)) ");
+            args.add(afterScore);
+            args.add(afterScore);
+            args.add(afterId);
+        }
+        sql.append("ORDER BY score, f.rowid LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(), HIT_MAPPER, args.toArray());
+    }
+
+    /**
+     * Fallback for queries made only of one- or two-character terms, which trigram
+     * MATCH cannot answer. Scans the user's notes newest first; a non-null
+     * afterCreatedAt/afterId continues after that note.
+     */
+    public List<NoteSearchHitDTO> scan(String username, List<String> shortTerms, LocalDateTime afterCreatedAt, Long afterId, int limit) {
+        StringBuilder sql = new StringBuilder(SCAN_SELECT);
+        List<Object> args = new ArrayList<>();
+        args.add(username);
+        appendShortTermFilters(sql, args, shortTerms);
+        if (afterCreatedAt != null && afterId != null) {
+            sql.append("AND (n.created_at < ? OR (n.created_at = ? AND n.id < ?)) ");
+            args.add(Timestamp.valueOf(afterCreatedAt));
+            args.add(Timestamp.valueOf(afterCreatedAt));
+            args.add(afterId);
+        }
+        sql.append("ORDER BY n.created_at DESC, n.id DESC LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(), HIT_MAPPER, args.toArray());
+    }
+
+    private void appendShortTermFilters(StringBuilder sql, List<Object> args, List<String> shortTerms) {
+        for (String term : shortTerms) {
+            sql.append("AND (instr(f.title, ?) > 0 OR instr(f.content, ?) > 0) ");
+            args.add(term);
+            args.add(term);
+        }
+    }
+
+    private static final RowMapper<NoteSearchHitDTO> HIT_MAPPER = (rs, rowNum) -> {
+        double score = rs.getDouble("score");
+        Double scoreValue = rs.wasNull() ? null : score;
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        return new NoteSearchHitDTO(
+            rs.getLong("id"),
+            rs.getString("title_snippet"),
+            rs.getString("content_snippet"),
+            scoreValue,
+            createdAt == null ? null : createdAt.toLocalDateTime());
+    };
+}
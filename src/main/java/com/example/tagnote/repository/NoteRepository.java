@@ -1,18 +1,22 @@
 package com.example.tagnote.repository;
 
+import com.example.tagnote.dto.NoteSummaryDTO;
 import com.example.tagnote.entity.Note;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface NoteRepository extends JpaRepository<Note, Long> {
+public interface NoteRepository extends JpaRepository<Note, Long>, NoteRepositoryCustom {
     Page<Note> findAll(Pageable pageable);
 
     // Method to find all notes ordered by createdAt descending
@@ -27,16 +31,175 @@ public interface NoteRepository extends JpaRepository<Note, Long> {
     // Method to find all notes by username ordered by createdAt descending
     Page<Note> findByUsernameOrderByCreatedAtDesc(String username, Pageable pageable);
 
-    @Query("SELECT n FROM Note n JOIN n.tags t WHERE t.name IN :tagNames AND n.username = :username")
-    List<Note> findByTagNamesAndUsername(@Param("tagNames") List<String> tagNames, @Param("username") String username);
-
     @Query("SELECT n FROM Note n JOIN n.tags t WHERE t.name IN :tagNames AND n.username = :username ORDER BY n.createdAt DESC")
     Page<Note> findByTagNamesAndUsername(@Param("tagNames") List<String> tagNames, @Param("username") String username, Pageable pageable);
 
-    @Query("SELECT n FROM Note n JOIN n.tags t WHERE t.name IN :tagNames AND n.username = :username ORDER BY n.createdAt DESC")
-    List<Note> findByTagNamesAndUsernameOrderByCreatedAtDesc(@Param("tagNames") List<String> tagNames, @Param("username") String username);
+    // Keyset pagination: first slice of a user's notes, newest first, without a
+    // count query
+    Slice<Note> findByUsernameOrderByCreatedAtDescIdDesc(String username, Pageable pageable);
+
+    // Keyset pagination: notes strictly after the (createdAt, id) cursor. Written
+    // without nested parentheses: "a < x OR (a = x AND b < y)" sends Hibernate's
+    // HQL parser into full-context prediction, which takes seconds and tens of MB
+    // of heap per query at startup.
+    String AFTER_CURSOR = "n.createdAt <= :createdAt AND (n.createdAt < :createdAt OR n.id < :id) ";
+
+    @Query("SELECT n FROM Note n WHERE n.username = :username AND " + AFTER_CURSOR + "ORDER BY n.createdAt DESC, n.id DESC")
+    Slice<Note> findByUsernameAfterCursor(@Param("username") String username, @Param("createdAt") LocalDateTime createdAt,
+        @Param("id") Long id,
+        Pageable pageable);
+
+    // Keyset pagination over notes carrying any of the given tags; EXISTS keeps
+    // each note exactly once
+    @Query("SELECT n FROM Note n WHERE n.username = :username AND EXISTS (SELECT t.id FROM Tag t JOIN t.notes tn WHERE tn = n AND t.name IN :tagNames) ORDER BY n.createdAt DESC, n.id DESC")
+    Slice<Note> findByTagNamesAndUsernameFirstSlice(@Param("tagNames") List<String> tagNames, @Param("username") String username,
+        Pageable pageable);
+
+    @Query("SELECT n FROM Note n WHERE n.username = :username AND EXISTS (SELECT t.id FROM Tag t JOIN t.notes tn WHERE tn = n AND t.name IN :tagNames) AND "
+        + AFTER_CURSOR + "ORDER BY n.createdAt DESC, n.id DESC")
+    Slice<Note> findByTagNamesAndUsernameAfterCursor(@Param("tagNames") List<String> tagNames, @Param("username") String username,
+        @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    // Keyset pagination within a creation time range: notes from :from on and
+    // strictly after the (createdAt, id) cursor. The plain bounds on createdAt let
+    // SQLite seek idx_notes_username_created_at_id straight to the cursor and stop
+    // at :from, whatever the position in the history.
+    String IN_RANGE_AFTER_CURSOR = "n.username = :username AND n.createdAt >= :from AND " + AFTER_CURSOR;
+
+    @Query("SELECT n FROM Note n WHERE " + IN_RANGE_AFTER_CURSOR + "ORDER BY n.createdAt DESC, n.id DESC")
+    Slice<Note> findByUsernameInRangeAfterCursor(@Param("username") String username, @Param("from") LocalDateTime from,
+        @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT n FROM Note n WHERE " + IN_RANGE_AFTER_CURSOR
+        + "AND EXISTS (SELECT t.id FROM Tag t JOIN t.notes tn WHERE tn = n AND t.name IN :tagNames) ORDER BY n.createdAt DESC, n.id DESC")
+    Slice<Note> findByTagNamesAndUsernameInRangeAfterCursor(@Param("tagNames") List<String> tagNames, @Param("username") String username,
+        @Param("from") LocalDateTime from, @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    long countByUsernameAndCreatedAtGreaterThanEqualAndCreatedAtLessThan(String username, LocalDateTime from, LocalDateTime to);
+
+    @Query("SELECT COUNT(n) FROM Note n WHERE n.username = :username AND n.createdAt >= :from AND n.createdAt < :to "
+        + "AND EXISTS (SELECT t.id FROM Tag t JOIN t.notes tn WHERE tn = n AND t.name IN :tagNames)")
+    long countByTagNamesAndUsernameInRange(@Param("tagNames") List<String> tagNames, @Param("username") String username,
+        @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Summary projections of the lists above. Only the selected columns are read,
+    // and the body is stored last in the row, so its overflow pages are never
+    // touched.
+    String SUMMARY_SELECT = "SELECT new com.example.tagnote.dto.NoteSummaryDTO(n.id, n.title, n.preview, n.createdAt, n.updatedAt) FROM Note n ";
+
+    @Query(value = SUMMARY_SELECT
+        + "WHERE n.username = :username ORDER BY n.createdAt DESC", countQuery = "SELECT COUNT(n) FROM Note n WHERE n.username = :username")
+    Page<NoteSummaryDTO> findSummariesByUsername(@Param("username") String username, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE n.username = :username ORDER BY n.createdAt DESC, n.id DESC")
+    Slice<NoteSummaryDTO> findSummariesByUsernameFirstSlice(@Param("username") String username, Pageable pageable);
+
+    @Query(SUMMARY_SELECT
+        + "WHERE n.username = :username AND " + AFTER_CURSOR + "ORDER BY n.createdAt DESC, n.id DESC")
+    Slice<NoteSummaryDTO> findSummariesByUsernameAfterCursor(@Param("username") String username,
+        @Param("createdAt") LocalDateTime createdAt,
+        @Param("id") Long id, Pageable pageable);
+
+    @Query(SUMMARY_SELECT
+        + "WHERE n.username = :username AND EXISTS (SELECT t.id FROM Tag t JOIN t.notes tn WHERE tn = n AND t.name IN :tagNames) ORDER BY n.createdAt DESC, n.id DESC")
+    Slice<NoteSummaryDTO> findSummariesByTagNamesAndUsernameFirstSlice(@Param("tagNames") List<String> tagNames,
+        @Param("username") String username, Pageable pageable);
+
+    @Query(SUMMARY_SELECT
+        + "WHERE n.username = :username AND EXISTS (SELECT t.id FROM Tag t JOIN t.notes tn WHERE tn = n AND t.name IN :tagNames) AND "
+        + AFTER_CURSOR + "ORDER BY n.createdAt DESC, n.id DESC")
+    Slice<NoteSummaryDTO> findSummariesByTagNamesAndUsernameAfterCursor(@Param("tagNames") List<String> tagNames,
+        @Param("username") String username, @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE " + IN_RANGE_AFTER_CURSOR + "ORDER BY n.createdAt DESC, n.id DESC")
+    Slice<NoteSummaryDTO> findSummariesByUsernameInRangeAfterCursor(@Param("username") String username,
+        @Param("from") LocalDateTime from, @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE " + IN_RANGE_AFTER_CURSOR
+        + "AND EXISTS (SELECT t.id FROM Tag t JOIN t.notes tn WHERE tn = n AND t.name IN :tagNames) ORDER BY n.createdAt DESC, n.id DESC")
+    Slice<NoteSummaryDTO> findSummariesByTagNamesAndUsernameInRangeAfterCursor(@Param("tagNames") List<String> tagNames,
+        @Param("username") String username, @Param("from") LocalDateTime from, @Param("createdAt") LocalDateTime createdAt,
+        @Param("id") Long id, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE n.id IN :ids")
+    List<NoteSummaryDTO> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    long countByUsername(String username);
+
+    @Query("SELECT COUNT(n) FROM Note n WHERE n.username = :username AND EXISTS (SELECT t.id FROM Tag t JOIN t.notes tn WHERE tn = n AND t.name IN :tagNames)")
+    long countByTagNamesAndUsername(@Param("tagNames") List<String> tagNames, @Param("username") String username);
+
+    // Bulk reads used to build the in-memory tag index for one user
+    @Query("SELECT n.id, n.createdAt FROM Note n WHERE n.username = :username")
+    List<Object[]> findIdsAndCreatedAtByUsername(@Param("username") String username);
+
+    @Query("SELECT n.id, t.name FROM Note n JOIN n.tags t WHERE n.username = :username")
+    List<Object[]> findIdsAndTagNamesByUsername(@Param("username") String username);
+
+    // Tag names for a whole page of notes in one query, as (noteId, tagName) rows
+    @Query("SELECT n.id, t.name FROM Note n JOIN n.tags t WHERE n.id IN :noteIds")
+    List<Object[]> findTagNamesByNoteIds(@Param("noteIds") Collection<Long> noteIds);
+
+    @Query("SELECT MIN(n.createdAt) FROM Note n WHERE n.username = :username")
+    LocalDateTime findFirstCreatedAtByUsername(@Param("username") String username);
+
+    @Query("SELECT MAX(n.createdAt) FROM Note n WHERE n.username = :username")
+    LocalDateTime findLastCreatedAtByUsername(@Param("username") String username);
+
+    @Query("SELECT DISTINCT n.username FROM Note n WHERE n.username IS NOT NULL")
+    List<String> findDistinctUsernames();
+
+    // Chunks of the notes deleteByUsernameAndTagId is about to delete
+    @Modifying
+    @Query(value = "DELETE FROM note_body_chunks WHERE note_id IN (SELECT note_id FROM note_tags WHERE tag_id = :tagId)", nativeQuery = true)
+    int deleteBodyChunksByTagId(@Param("tagId") Long tagId);
+
+    // Marks the notes carrying a tag as changed, e.g. when the tag is removed from
+    // them
+    @Modifying
+    @Query(value = "UPDATE notes SET sync_version = :version, version = version + 1 WHERE id IN (SELECT note_id FROM note_tags WHERE tag_id = :tagId)", nativeQuery = true)
+    int updateSyncVersionByTagId(@Param("tagId") Long tagId, @Param("version") long version);
+
+    @Modifying
+    @Query(value = "DELETE FROM notes WHERE username = :username AND id IN (SELECT note_id FROM note_tags WHERE tag_id = :tagId)", nativeQuery = true)
+    int deleteByUsernameAndTagId(@Param("username") String username, @Param("tagId") Long tagId);
+
+    // Set-based statements for NoteBatchService, over the notes of one batch
+
+    @Query("SELECT n.id FROM Note n WHERE n.username = :username AND n.id IN :ids")
+    List<Long> findIdsByUsernameAndIdIn(@Param("username") String username, @Param("ids") Collection<Long> ids);
+
+    // (note_id, tag_id) rows
+    @Query(value = "SELECT note_id, tag_id FROM note_tags WHERE note_id IN (:noteIds)", nativeQuery = true)
+    List<Object[]> findTagLinksByNoteIdIn(@Param("noteIds") Collection<Long> noteIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM note_tags WHERE note_id IN (:noteIds)", nativeQuery = true)
+    int deleteTagLinksByNoteIdIn(@Param("noteIds") Collection<Long> noteIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM note_body_chunks WHERE note_id IN (:noteIds)", nativeQuery = true)
+    int deleteBodyChunksByNoteIdIn(@Param("noteIds") Collection<Long> noteIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM notes WHERE id IN (:ids)", nativeQuery = true)
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    // For notes whose tags changed but whose content did not
+    @Modifying
+    @Query(value = "UPDATE notes SET sync_version = :version, updated_at = :updatedAt, version = version + 1 WHERE id IN (:ids)", nativeQuery = true)
+    int touchByIdIn(@Param("ids") Collection<Long> ids, @Param("version") long version, @Param("updatedAt") LocalDateTime updatedAt);
+
+    // Notes per calendar day (server time zone) within [from, to); the range seeks
+    // the (username, created_at) index
+    @Query(value = "SELECT date(created_at / 1000, 'unixepoch', 'localtime') AS day, COUNT(*) AS noteCount FROM notes "
+        + "WHERE username = :username AND created_at >= :from AND created_at < :to GROUP BY day ORDER BY day", nativeQuery = true)
+    List<NoteDayCount> countNotesByDay(@Param("username") String username, @Param("from") LocalDateTime from,
+        @Param("to") LocalDateTime to);
+
+    interface NoteDayCount {
+        String getDay();
 
-    // Method to get distinct creation dates for calendar view
-    @Query("SELECT DISTINCT n.createdAt FROM Note n WHERE n.username = :username ORDER BY n.createdAt DESC")
-    List<LocalDateTime> findDistinctCreationDatesByUsername(@Param("username") String username);
-}
\ No newline at end of file
+        long getNoteCount();
+    }
+}
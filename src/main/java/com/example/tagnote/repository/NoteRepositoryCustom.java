@@ -0,0 +1,29 @@
+package com.example.tagnote.repository;
+
+import com.example.tagnote.dto.NoteDTO;
+import com.example.tagnote.entity.Note;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface NoteRepositoryCustom {
+
+    // Insert many notes as they are, keeping their createdAt/updatedAt,
+    // syncVersion and preview, and assign the generated ids to them. Chunks of
+    // CHUNKED bodies are inserted too.
+    void insertAll(List<Note> notes);
+
+    // Overwrite the title, body, preview, updatedAt and syncVersion of many notes
+    // by id, replacing their chunks, as JDBC batches
+    void updateAll(List<Note> notes);
+
+    // Insert (note_id, tag_id) rows as a single JDBC batch
+    void insertTagLinks(List<Object[]> noteIdTagIdRows);
+
+    // Delete (note_id, tag_id) rows as a single JDBC batch
+    void deleteTagLinks(List<Object[]> noteIdTagIdRows);
+
+    // Pass every note of the user, with its tag names, to the action in
+    // (createdAt, id) order, one row at a time
+    void forEachByUsername(String username, int fetchSize, Consumer<NoteDTO> action);
+}
@@ -0,0 +1,164 @@
+package com.example.tagnote.repository;
+
+import com.example.tagnote.dto.NoteDTO;
+import com.example.tagnote.entity.Note;
+import com.example.tagnote.entity.NoteBody;
+import com.example.tagnote.entity.NoteBodyChunk;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * JDBC-backed part of {@link NoteRepository}. Going around Hibernate keeps
+ * imported timestamps (the entity's @PrePersist would overwrite them) and
+ * avoids a persistence context that grows with every inserted note.
+ */
+public class NoteRepositoryImpl implements NoteRepositoryCustom {
+
+    // Unit separator; tag names are free text and may contain commas
+    private static final String TAG_SEPARATOR = "\u001F";
+
+    // Walks idx_notes_username_created_at_id, so rows come out in index order
+    // without a sort, and fetches each note's tags from the note_tags primary key
+    private static final String FOR_EACH_BY_USERNAME = "SELECT n.id, n.title, n.created_at, n.updated_at, n.body_encoding, n.body, "
+        + "(SELECT group_concat(t.name, char(31)) FROM note_tags nt JOIN tags t ON t.id = nt.tag_id WHERE nt.note_id = n.id) AS tag_names "
+        + "FROM notes n WHERE n.username = ? ORDER BY n.created_at, n.id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(List<Note> notes) {
+        if (notes.isEmpty()) {
+            return;
+        }
+        // One reused statement; SQLite reports the id of each insert on the same
+        // connection
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO notes (title, body_encoding, body, created_at, updated_at, username, sync_version, preview) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                Statement.RETURN_GENERATED_KEYS)) {
+                for (Note note : notes) {
+                    statement.setString(1, note.getTitle());
+                    statement.setString(2, note.getBodyEncoding().name());
+                    statement.setBytes(3, note.getBody());
+                    statement.setTimestamp(4, Timestamp.valueOf(note.getCreatedAt()));
+                    statement.setTimestamp(5, Timestamp.valueOf(note.getUpdatedAt()));
+                    statement.setString(6, note.getUsername());
+                    statement.setLong(7, note.getSyncVersion());
+                    statement.setString(8, note.getPreview());
+                    statement.executeUpdate();
+                    try (ResultSet keys = statement.getGeneratedKeys()) {
+                        keys.next();
+                        note.setId(keys.getLong(1));
+                    }
+                }
+            }
+            return null;
+        });
+
+        List<Object[]> chunkRows = new ArrayList<>();
+        for (Note note : notes) {
+            for (NoteBodyChunk chunk : note.getBodyChunks()) {
+                chunkRows.add(new Object[] { note.getId(), chunk.getSeq(), chunk.getData() });
+            }
+        }
+        if (!chunkRows.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO note_body_chunks (note_id, seq, data) VALUES (?, ?, ?)", chunkRows);
+        }
+    }
+
+    @Override
+    public void updateAll(List<Note> notes) {
+        if (notes.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(notes.size());
+        List<Object[]> noteIds = new ArrayList<>(notes.size());
+        List<Object[]> chunkRows = new ArrayList<>();
+        for (Note note : notes) {
+            rows.add(new Object[] { note.getTitle(), note.getBodyEncoding().name(), note.getBody(), note.getPreview(),
+                Timestamp.valueOf(note.getUpdatedAt()), note.getSyncVersion(), note.getId() });
+            noteIds.add(new Object[] { note.getId() });
+            for (NoteBodyChunk chunk : note.getBodyChunks()) {
+                chunkRows.add(new Object[] { note.getId(), chunk.getSeq(), chunk.getData() });
+            }
+        }
+        // Explicit types, since the driver cannot look up the type of a null title
+        jdbcTemplate.batchUpdate(
+            "UPDATE notes SET title = ?, body_encoding = ?, body = ?, preview = ?, updated_at = ?, sync_version = ?, version = version + 1 "
+                + "WHERE id = ?",
+            rows,
+            new int[] { Types.VARCHAR, Types.VARCHAR, Types.BLOB, Types.VARCHAR, Types.TIMESTAMP, Types.BIGINT, Types.BIGINT });
+        jdbcTemplate.batchUpdate("DELETE FROM note_body_chunks WHERE note_id = ?", noteIds);
+        if (!chunkRows.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO note_body_chunks (note_id, seq, data) VALUES (?, ?, ?)", chunkRows);
+        }
+    }
+
+    @Override
+    public void insertTagLinks(List<Object[]> noteIdTagIdRows) {
+        if (noteIdTagIdRows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO note_tags (note_id, tag_id) VALUES (?, ?)", noteIdTagIdRows);
+    }
+
+    @Override
+    public void deleteTagLinks(List<Object[]> noteIdTagIdRows) {
+        if (noteIdTagIdRows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("DELETE FROM note_tags WHERE note_id = ? AND tag_id = ?", noteIdTagIdRows);
+    }
+
+    @Override
+    public void forEachByUsername(String username, int fetchSize, Consumer<NoteDTO> action) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(FOR_EACH_BY_USERNAME, ResultSet.TYPE_FORWARD_ONLY,
+                ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            statement.setString(1, username);
+            return statement;
+        }, resultSet -> {
+            String tagNames = resultSet.getString("tag_names");
+            action.accept(new NoteDTO(
+                resultSet.getLong("id"),
+                resultSet.getString("title"),
+                readContent(resultSet),
+                toLocalDateTime(resultSet.getTimestamp("created_at")),
+                toLocalDateTime(resultSet.getTimestamp("updated_at")),
+                username,
+                tagNames == null ? new ArrayList<>() : Arrays.asList(tagNames.split(TAG_SEPARATOR))));
+        });
+    }
+
+    // Chunks are only queried for the few CHUNKED bodies, on the same connection
+    // and snapshot as the outer query
+    private String readContent(ResultSet resultSet) throws SQLException {
+        NoteBody.Encoding encoding = NoteBody.Encoding.valueOf(resultSet.getString("body_encoding"));
+        List<byte[]> chunks = List.of();
+        if (encoding == NoteBody.Encoding.CHUNKED) {
+            chunks = jdbcTemplate.queryForList("SELECT data FROM note_body_chunks WHERE note_id = ? ORDER BY seq", byte[].class,
+                resultSet.getLong("id"));
+        }
+        return NoteBody.decode(encoding, resultSet.getBytes("body"), chunks);
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+}
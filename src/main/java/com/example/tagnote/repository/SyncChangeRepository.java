@@ -0,0 +1,73 @@
+package com.example.tagnote.repository;
+
+import com.example.tagnote.dto.SyncChangeDTO;
+import com.example.tagnote.dto.SyncCursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a user's change feed: live notes and tags by their sync_version plus
+ * the tombstones of deleted ones, merged in (version, kind, id) order. Each
+ * source is read as a range scan of its (username, sync_version, id) index,
+ * limited on its own, and the union is sorted and limited again, so a page
+ * costs about the page size per source regardless of how far behind the client
+ * is.
+ */
+@Repository
+public class SyncChangeRepository {
+
+    private static final String TAGS = "SELECT %d AS kind, id, sync_version FROM tags "
+        + "WHERE username = ? AND (sync_version, id) > (?, ?) ORDER BY sync_version, id LIMIT ?";
+
+    private static final String NOTES = "SELECT %d AS kind, id, sync_version FROM notes "
+        + "WHERE username = ? AND (sync_version, id) > (?, ?) ORDER BY sync_version, id LIMIT ?";
+
+    private static final String TOMBSTONES = "SELECT %d AS kind, entity_id AS id, sync_version FROM sync_tombstones "
+        + "WHERE username = ? AND entity_type = '%s' AND (sync_version, entity_id) > (?, ?) ORDER BY sync_version, entity_id LIMIT ?";
+
+    private static final String SQL = "SELECT * FROM (" + String.format(TAGS, SyncChangeDTO.Kind.TAG.ordinal()) + ") "
+        + "UNION ALL SELECT * FROM (" + String.format(NOTES, SyncChangeDTO.Kind.NOTE.ordinal()) + ") "
+        + "UNION ALL SELECT * FROM (" + String.format(TOMBSTONES, SyncChangeDTO.Kind.NOTE_DELETED.ordinal(), "note") + ") "
+        + "UNION ALL SELECT * FROM (" + String.format(TOMBSTONES, SyncChangeDTO.Kind.TAG_DELETED.ordinal(), "tag") + ") "
+        + "ORDER BY sync_version, kind, id LIMIT ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Up to limit changes strictly after the cursor, as (kind, id, version)
+    // without their payload
+    public List<SyncChangeDTO> findAfter(String username, SyncCursor cursor, int limit) {
+        List<Object> args = new ArrayList<>();
+        for (SyncChangeDTO.Kind kind : SyncChangeDTO.Kind.values()) {
+            args.add(username);
+            args.add(cursor.getVersion());
+            args.add(lowerIdBound(cursor, kind));
+            args.add(limit);
+        }
+        args.add(limit);
+        return jdbcTemplate.query(SQL, (rs, rowNum) -> {
+            SyncChangeDTO.Kind kind = SyncChangeDTO.Kind.values()[rs.getInt("kind")];
+            boolean isTag = kind == SyncChangeDTO.Kind.TAG || kind == SyncChangeDTO.Kind.TAG_DELETED;
+            boolean deleted = kind == SyncChangeDTO.Kind.NOTE_DELETED || kind == SyncChangeDTO.Kind.TAG_DELETED;
+            return new SyncChangeDTO(rs.getLong("sync_version"), isTag ? SyncChangeDTO.TYPE_TAG : SyncChangeDTO.TYPE_NOTE, deleted,
+                rs.getLong("id"));
+        }, args.toArray());
+    }
+
+    // Within the cursor's version, kinds ordered before the cursor are done, the
+    // cursor's own kind continues after its id and later kinds start from the
+    // beginning
+    private static long lowerIdBound(SyncCursor cursor, SyncChangeDTO.Kind kind) {
+        if (cursor.getKind() == null || cursor.getKind().compareTo(kind) > 0) {
+            return Long.MAX_VALUE;
+        }
+        if (cursor.getKind() == kind) {
+            return cursor.getId();
+        }
+        return Long.MIN_VALUE;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.tagnote.repository;
+
+import com.example.tagnote.entity.SyncTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@Repository
+public interface SyncTombstoneRepository extends JpaRepository<SyncTombstone, Long> {
+
+    // Set-based tombstones for the tag delete statements in TagService; each must
+    // run before the rows it describes are deleted
+
+    @Modifying
+    @Query(value = "INSERT INTO sync_tombstones (username, entity_type, entity_id, sync_version, deleted_at) "
+        + "SELECT :username, 'note', n.id, :version, :deletedAt FROM notes n "
+        + "WHERE n.username = :username AND n.id IN (SELECT note_id FROM note_tags WHERE tag_id = :tagId)", nativeQuery = true)
+    int insertForNotesTaggedWith(@Param("username") String username, @Param("tagId") Long tagId, @Param("version") long version,
+        @Param("deletedAt") LocalDateTime deletedAt);
+
+    // For the notes a NoteBatchService batch deletes
+    @Modifying
+    @Query(value = "INSERT INTO sync_tombstones (username, entity_type, entity_id, sync_version, deleted_at) "
+        + "SELECT :username, 'note', n.id, :version, :deletedAt FROM notes n WHERE n.username = :username AND n.id IN (:noteIds)", nativeQuery = true)
+    int insertForNotes(@Param("username") String username, @Param("noteIds") Collection<Long> noteIds, @Param("version") long version,
+        @Param("deletedAt") LocalDateTime deletedAt);
+
+    // Same condition as TagRepository.deleteOrphansByIdIn
+    @Modifying
+    @Query(value = "INSERT INTO sync_tombstones (username, entity_type, entity_id, sync_version, deleted_at) "
+        + "SELECT :username, 'tag', t.id, :version, :deletedAt FROM tags t "
+        + "WHERE t.id IN (:tagIds) AND NOT EXISTS (SELECT 1 FROM note_tags WHERE tag_id = t.id)", nativeQuery = true)
+    int insertForOrphanTags(@Param("username") String username, @Param("tagIds") Collection<Long> tagIds,
+        @Param("version") long version, @Param("deletedAt") LocalDateTime deletedAt);
+}
@@ -0,0 +1,23 @@
+package com.example.tagnote.repository;
+
+import com.example.tagnote.entity.SyncVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SyncVersionRepository extends JpaRepository<SyncVersion, String> {
+
+    // Creates the counter at 1 for a new user
+    @Modifying
+    @Query(value = "INSERT INTO sync_versions (username, version) VALUES (:username, 1) "
+        + "ON CONFLICT (username) DO UPDATE SET version = version + 1", nativeQuery = true)
+    int increment(@Param("username") String username);
+
+    // Read with SQL rather than findById, which may return a stale entity from the
+    // persistence context after increment
+    @Query(value = "SELECT version FROM sync_versions WHERE username = :username", nativeQuery = true)
+    Long findVersion(@Param("username") String username);
+}
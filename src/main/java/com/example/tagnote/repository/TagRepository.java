@@ -1,17 +1,79 @@
 package com.example.tagnote.repository;
 
 import com.example.tagnote.entity.Tag;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface TagRepository extends JpaRepository<Tag, Long> {
+public interface TagRepository extends JpaRepository<Tag, Long>, TagRepositoryCustom {
     Optional<Tag> findByName(String name);
 
     Optional<Tag> findByNameAndUsername(String name, String username);
 
     // Method to find all tags by username
-    java.util.List<Tag> findByUsername(String username);
-}
\ No newline at end of file
+    List<Tag> findByUsername(String username);
+
+    List<Tag> findByUsername(String username, Sort sort);
+
+    long countByUsername(String username);
+
+    @Query("SELECT DISTINCT t.username FROM Tag t WHERE t.username IS NOT NULL")
+    List<String> findDistinctUsernames();
+
+    // Resolve a whole set of tag names with one IN query
+    List<Tag> findByUsernameAndNameIn(String username, Collection<String> names);
+
+    // Every tag name of a user with its number of notes, for TagSuggestIndex
+    @Query("SELECT t.name, t.noteCount FROM Tag t WHERE t.username = :username")
+    List<Object[]> findNamesAndNoteCountsByUsername(@Param("username") String username);
+
+    // Recompute the note count and last use of the given tags from their
+    // remaining notes (as V8 does), for writes that cannot tell which links they
+    // removed
+    @Modifying
+    @Query(value = "UPDATE tags SET note_count = (SELECT COUNT(*) FROM note_tags WHERE tag_id = tags.id), "
+        + "last_used_at = (SELECT MAX(COALESCE(n.updated_at, n.created_at)) FROM note_tags nt JOIN notes n ON n.id = nt.note_id "
+        + "WHERE nt.tag_id = tags.id) WHERE id IN (:tagIds)", nativeQuery = true)
+    int recountUsageByIdIn(@Param("tagIds") Collection<Long> tagIds);
+
+    // Set-based statements for deleting a tag without loading its notes
+
+    // Other tags sharing a note with the given tag; candidates for orphan cleanup
+    // once those notes are gone
+    @Query(value = "SELECT DISTINCT other.tag_id FROM note_tags nt JOIN note_tags other ON other.note_id = nt.note_id "
+        + "WHERE nt.tag_id = :tagId AND other.tag_id <> :tagId", nativeQuery = true)
+    List<Long> findCoTagIds(@Param("tagId") Long tagId);
+
+    @Modifying
+    @Query(value = "DELETE FROM note_tags WHERE tag_id = :tagId", nativeQuery = true)
+    int deleteNoteTagsByTagId(@Param("tagId") Long tagId);
+
+    // Every link of every note carrying the tag, including the links to other tags
+    @Modifying
+    @Query(value = "DELETE FROM note_tags WHERE note_id IN (SELECT note_id FROM note_tags WHERE tag_id = :tagId)", nativeQuery = true)
+    int deleteNoteTagsOfNotesTaggedWith(@Param("tagId") Long tagId);
+
+    @Modifying
+    @Query(value = "DELETE FROM tags WHERE id IN (:tagIds) AND NOT EXISTS (SELECT 1 FROM note_tags WHERE tag_id = tags.id)", nativeQuery = true)
+    int deleteOrphansByIdIn(@Param("tagIds") Collection<Long> tagIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM tags WHERE id = :tagId", nativeQuery = true)
+    int deleteTagById(@Param("tagId") Long tagId);
+
+    // Set-based statements for merging one tag into another
+
+    // Links every note of the source tag to the target; notes already carrying the
+    // target are skipped by the (note_id, tag_id) primary key
+    @Modifying
+    @Query(value = "INSERT OR IGNORE INTO note_tags (note_id, tag_id) SELECT note_id, :targetId FROM note_tags WHERE tag_id = :sourceId", nativeQuery = true)
+    int copyNoteTags(@Param("sourceId") Long sourceId, @Param("targetId") Long targetId);
+}
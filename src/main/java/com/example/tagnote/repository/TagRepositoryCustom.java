@@ -0,0 +1,19 @@
+package com.example.tagnote.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+
+public interface TagRepositoryCustom {
+
+    // Insert many tags for one user as a single JDBC batch, stamped with the given
+    // sync version
+    void insertAll(String username, Collection<String> names, long syncVersion);
+
+    // Adds each tag's note count delta and moves its last use forward to
+    // lastUsedAt, as a single JDBC batch; a null lastUsedAt leaves it unchanged
+    void addUsage(Map<Long, Usage> usageByTagId);
+
+    record Usage(long noteCountDelta, LocalDateTime lastUsedAt) {
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.tagnote.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC-backed part of {@link TagRepository}. Tag ids are IDENTITY generated,
+ * which keeps Hibernate from batching inserts, so bulk inserts go straight
+ * through a batched prepared statement.
+ */
+public class TagRepositoryImpl implements TagRepositoryCustom {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(String username, Collection<String> names, long syncVersion) {
+        if (names.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(names.size());
+        for (String name : names) {
+            rows.add(new Object[] { name, username, now, syncVersion });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO tags (name, username, created_at, sync_version) VALUES (?, ?, ?, ?)", rows);
+    }
+
+    @Override
+    public void addUsage(Map<Long, Usage> usageByTagId) {
+        if (usageByTagId.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(usageByTagId.size());
+        for (Map.Entry<Long, Usage> entry : usageByTagId.entrySet()) {
+            Usage usage = entry.getValue();
+            Timestamp lastUsedAt = usage.lastUsedAt() != null ? Timestamp.valueOf(usage.lastUsedAt()) : null;
+            rows.add(new Object[] { usage.noteCountDelta(), lastUsedAt, lastUsedAt, entry.getKey() });
+        }
+        // A null parameter compares as unknown, so the CASE keeps the stored value
+        jdbcTemplate.batchUpdate("UPDATE tags SET note_count = note_count + ?, "
+            + "last_used_at = CASE WHEN last_used_at IS NULL OR last_used_at < ? THEN ? ELSE last_used_at END WHERE id = ?", rows,
+            new int[] { Types.BIGINT, Types.TIMESTAMP, Types.TIMESTAMP, Types.BIGINT });
+    }
+}
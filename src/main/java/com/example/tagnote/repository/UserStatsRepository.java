@@ -0,0 +1,37 @@
+package com.example.tagnote.repository;
+
+import com.example.tagnote.entity.UserStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface UserStatsRepository extends JpaRepository<UserStats, String> {
+
+    // Count new notes and widen the first/last note range to cover them; returns 0
+    // if the user has no stats row yet
+    @Modifying
+    @Query("UPDATE UserStats s SET s.noteCount = s.noteCount + :count, "
+        + "s.firstNoteAt = CASE WHEN s.firstNoteAt IS NULL OR s.firstNoteAt > :firstCreatedAt THEN :firstCreatedAt ELSE s.firstNoteAt END, "
+        + "s.lastNoteAt = CASE WHEN s.lastNoteAt IS NULL OR s.lastNoteAt < :lastCreatedAt THEN :lastCreatedAt ELSE s.lastNoteAt END "
+        + "WHERE s.username = :username")
+    int addNotes(@Param("username") String username, @Param("count") long count,
+        @Param("firstCreatedAt") LocalDateTime firstCreatedAt, @Param("lastCreatedAt") LocalDateTime lastCreatedAt);
+
+    @Modifying
+    @Query("UPDATE UserStats s SET s.noteCount = s.noteCount - :count WHERE s.username = :username")
+    int removeNotes(@Param("username") String username, @Param("count") long count);
+
+    @Modifying
+    @Query("UPDATE UserStats s SET s.firstNoteAt = :firstNoteAt, s.lastNoteAt = :lastNoteAt WHERE s.username = :username")
+    int setNoteRange(@Param("username") String username, @Param("firstNoteAt") LocalDateTime firstNoteAt,
+        @Param("lastNoteAt") LocalDateTime lastNoteAt);
+
+    @Modifying
+    @Query("UPDATE UserStats s SET s.tagCount = s.tagCount + :delta WHERE s.username = :username")
+    int addTags(@Param("username") String username, @Param("delta") long delta);
+}
@@ -0,0 +1,394 @@
+package com.example.tagnote.service;
+
+import com.example.tagnote.dto.NoteBatchOperationDTO;
+import com.example.tagnote.dto.NoteBatchOperationResultDTO;
+import com.example.tagnote.dto.NoteBatchOperationResultDTO.Status;
+import com.example.tagnote.dto.NoteBatchRequestDTO;
+import com.example.tagnote.dto.NoteBatchResultDTO;
+import com.example.tagnote.entity.Note;
+import com.example.tagnote.entity.NoteBody;
+import com.example.tagnote.entity.Tag;
+import com.example.tagnote.event.TagsChangedEvent;
+import com.example.tagnote.repository.NoteRepository;
+import com.example.tagnote.repository.SyncTombstoneRepository;
+import com.example.tagnote.repository.TagRepository;
+import com.example.tagnote.repository.TagRepositoryCustom;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Applies a list of note operations in one write transaction: one user lookup,
+ * one sync version, one ownership query over every id, and one JDBC batch or
+ * set-based statement per kind of write. Operations are validated before
+ * anything is written. In atomic mode a batch with an invalid or unknown
+ * operation writes nothing; in best-effort mode those operations are reported
+ * and the others written. A note id may appear in only one operation of a
+ * batch, so the order of the operations does not matter.
+ */
+// Every public method is timed as tagnote.service{class, method}
+@Timed("tagnote.service")
+@Service
+public class NoteBatchService {
+
+    @Autowired
+    private NoteRepository noteRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private TagNameNormalizer tagNameNormalizer;
+
+    @Autowired
+    private NoteSearchService noteSearchService;
+
+    @Autowired
+    private UserStatsService userStatsService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private SyncVersionService syncVersionService;
+
+    @Autowired
+    private SyncTombstoneRepository syncTombstoneRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.notes.batch.max-operations:1000}")
+    private int maxOperations;
+
+    // Throws IllegalArgumentException if the batch has too many operations
+    @Transactional
+    public NoteBatchResultDTO apply(NoteBatchRequestDTO request) {
+        List<NoteBatchOperationDTO> operations = request.getOperations() == null ? List.of() : request.getOperations();
+        if (operations.size() > maxOperations) {
+            throw new IllegalArgumentException("At most " + maxOperations + " operations per batch");
+        }
+        String username = userService.getUsername();
+        List<NoteBatchOperationResultDTO> results = validate(operations);
+        checkOwnership(username, results);
+
+        boolean atomic = !NoteBatchRequestDTO.BEST_EFFORT.equals(request.getMode());
+        if (atomic && results.stream().anyMatch(result -> result.getStatus() != Status.OK)) {
+            for (NoteBatchOperationResultDTO result : results) {
+                if (result.getStatus() == Status.OK) {
+                    result.setStatus(Status.SKIPPED);
+                }
+            }
+            return new NoteBatchResultDTO(false, results);
+        }
+        new Batch(username).write(operations, results);
+        return new NoteBatchResultDTO(true, results);
+    }
+
+    private List<NoteBatchOperationResultDTO> validate(List<NoteBatchOperationDTO> operations) {
+        List<NoteBatchOperationResultDTO> results = new ArrayList<>(operations.size());
+        Map<Long, Integer> operationByNoteId = new HashMap<>();
+        for (int i = 0; i < operations.size(); i++) {
+            NoteBatchOperationDTO operation = operations.get(i);
+            String op = operation == null ? null : operation.getOp();
+            // A create has no id yet; any id it carries is ignored
+            Long id = op == null || NoteBatchOperationDTO.CREATE.equals(op) ? null : operation.getId();
+            NoteBatchOperationResultDTO result = new NoteBatchOperationResultDTO(i, op, Status.OK, id, null);
+            results.add(result);
+
+            String problem = problemOf(operation);
+            if (problem == null && id != null) {
+                Integer previous = operationByNoteId.putIfAbsent(id, i);
+                if (previous != null) {
+                    problem = "Note " + id + " is already changed by operation " + previous;
+                }
+            }
+            if (problem != null) {
+                result.setStatus(Status.INVALID);
+                result.setMessage(problem);
+            }
+        }
+        return results;
+    }
+
+    private String problemOf(NoteBatchOperationDTO operation) {
+        if (operation == null || operation.getOp() == null) {
+            return "Missing op";
+        }
+        String op = operation.getOp();
+        boolean known = List.of(NoteBatchOperationDTO.CREATE, NoteBatchOperationDTO.UPDATE, NoteBatchOperationDTO.DELETE,
+            NoteBatchOperationDTO.ADD_TAGS, NoteBatchOperationDTO.REMOVE_TAGS).contains(op);
+        if (!known) {
+            return "Unknown op: " + op;
+        }
+        if (!NoteBatchOperationDTO.CREATE.equals(op) && operation.getId() == null) {
+            return "Missing id";
+        }
+        if (isTooLong(operation.getContent())) {
+            return "Content is too long";
+        }
+        boolean tagsOnly = NoteBatchOperationDTO.ADD_TAGS.equals(op) || NoteBatchOperationDTO.REMOVE_TAGS.equals(op);
+        if (tagsOnly && tagNameNormalizer.normalize(operation.getTags()).isEmpty()) {
+            return "Missing tags";
+        }
+        return null;
+    }
+
+    private static boolean isTooLong(String content) {
+        return content != null && content.length() > NoteBody.MAX_LENGTH;
+    }
+
+    // One query for every id of the batch; notes of other users are reported as
+    // not found, like a missing note
+    private void checkOwnership(String username, List<NoteBatchOperationResultDTO> results) {
+        Set<Long> ids = new HashSet<>();
+        for (NoteBatchOperationResultDTO result : results) {
+            if (result.getStatus() == Status.OK && result.getId() != null) {
+                ids.add(result.getId());
+            }
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        Set<Long> owned = new HashSet<>(noteRepository.findIdsByUsernameAndIdIn(username, ids));
+        for (NoteBatchOperationResultDTO result : results) {
+            if (result.getStatus() == Status.OK && result.getId() != null && !owned.contains(result.getId())) {
+                result.setStatus(Status.NOT_FOUND);
+                result.setMessage("Note " + result.getId() + " not found");
+            }
+        }
+    }
+
+    // The writes of one batch, all stamped with the same version and time
+    private class Batch {
+        private final String username;
+        private final long version;
+        private final LocalDateTime now = LocalDateTime.now();
+        // Tag links of the batch's existing notes before the batch
+        private final Map<Long, Set<Long>> tagIdsByNoteId = new HashMap<>();
+        private final Map<String, Long> tagIdsByName = new HashMap<>();
+        private final Map<Long, TagRepositoryCustom.Usage> usageByTagId = new HashMap<>();
+        private final List<Object[]> linksToInsert = new ArrayList<>();
+        private final List<Object[]> linksToDelete = new ArrayList<>();
+
+        Batch(String username) {
+            this.username = username;
+            this.version = syncVersionService.next(username);
+        }
+
+        void write(List<NoteBatchOperationDTO> operations, List<NoteBatchOperationResultDTO> results) {
+            List<NoteBatchOperationDTO> creates = new ArrayList<>();
+            List<NoteBatchOperationResultDTO> createResults = new ArrayList<>();
+            List<NoteBatchOperationDTO> updates = new ArrayList<>();
+            List<Long> deleteIds = new ArrayList<>();
+            List<NoteBatchOperationDTO> tagChanges = new ArrayList<>();
+            Set<Long> existingIds = new HashSet<>();
+            Set<String> namesToResolve = new LinkedHashSet<>();
+            Set<String> namesToRemove = new LinkedHashSet<>();
+            for (NoteBatchOperationResultDTO result : results) {
+                if (result.getStatus() != Status.OK) {
+                    continue;
+                }
+                NoteBatchOperationDTO operation = operations.get(result.getIndex());
+                switch (operation.getOp()) {
+                case NoteBatchOperationDTO.CREATE -> {
+                    creates.add(operation);
+                    createResults.add(result);
+                    namesToResolve.addAll(tagNameNormalizer.normalize(operation.getTags()));
+                }
+                case NoteBatchOperationDTO.UPDATE -> {
+                    updates.add(operation);
+                    namesToResolve.addAll(tagNameNormalizer.normalize(operation.getTags()));
+                }
+                case NoteBatchOperationDTO.DELETE -> deleteIds.add(operation.getId());
+                case NoteBatchOperationDTO.ADD_TAGS -> {
+                    tagChanges.add(operation);
+                    namesToResolve.addAll(tagNameNormalizer.normalize(operation.getTags()));
+                }
+                default -> {
+                    tagChanges.add(operation);
+                    namesToRemove.addAll(tagNameNormalizer.normalize(operation.getTags()));
+                }
+                }
+                if (operation.getId() != null && !NoteBatchOperationDTO.CREATE.equals(operation.getOp())) {
+                    existingIds.add(operation.getId());
+                }
+            }
+
+            if (!existingIds.isEmpty()) {
+                for (Object[] link : noteRepository.findTagLinksByNoteIdIn(existingIds)) {
+                    tagIdsByNoteId.computeIfAbsent(((Number) link[0]).longValue(), id -> new HashSet<>())
+                        .add(((Number) link[1]).longValue());
+                }
+            }
+            resolveTags(new ArrayList<>(namesToResolve), namesToRemove);
+
+            writeCreates(creates, createResults);
+            writeUpdates(updates);
+            writeDeletes(deleteIds);
+            writeTagChanges(tagChanges);
+
+            noteRepository.insertTagLinks(linksToInsert);
+            noteRepository.deleteTagLinks(linksToDelete);
+            tagRepository.addUsage(usageByTagId);
+            // Like an import, the batch may touch any number of notes and tags, so the
+            // read cache and the in-memory indexes are reset rather than patched
+            eventPublisher.publishEvent(new TagsChangedEvent(username));
+        }
+
+        // Same find-then-insert as NoteService, over every tag name of the batch;
+        // names that are only removed are never created
+        private void resolveTags(List<String> names, Set<String> namesToRemove) {
+            Set<String> lookup = new LinkedHashSet<>(names);
+            lookup.addAll(namesToRemove);
+            if (lookup.isEmpty()) {
+                return;
+            }
+            for (Tag tag : tagRepository.findByUsernameAndNameIn(username, lookup)) {
+                tagIdsByName.put(tag.getName(), tag.getId());
+            }
+            List<String> missingNames = new ArrayList<>();
+            for (String name : names) {
+                if (!tagIdsByName.containsKey(name)) {
+                    missingNames.add(name);
+                }
+            }
+            if (!missingNames.isEmpty()) {
+                tagRepository.insertAll(username, missingNames, version);
+                for (Tag tag : tagRepository.findByUsernameAndNameIn(username, missingNames)) {
+                    tagIdsByName.put(tag.getName(), tag.getId());
+                }
+                userStatsService.tagsCreated(username, missingNames.size());
+            }
+        }
+
+        private void writeCreates(List<NoteBatchOperationDTO> creates, List<NoteBatchOperationResultDTO> createResults) {
+            if (creates.isEmpty()) {
+                return;
+            }
+            List<Note> notes = new ArrayList<>(creates.size());
+            for (NoteBatchOperationDTO operation : creates) {
+                notes.add(toNote(null, operation));
+            }
+            noteRepository.insertAll(notes);
+            for (int i = 0; i < notes.size(); i++) {
+                Long noteId = notes.get(i).getId();
+                createResults.get(i).setId(noteId);
+                linkTags(noteId, Set.of(), creates.get(i).getTags());
+            }
+            noteSearchService.indexAll(notes);
+            userStatsService.notesCreated(username, notes.size(), now, now);
+        }
+
+        // Full replacement of title, content and tags, as in NoteService.updateNote
+        private void writeUpdates(List<NoteBatchOperationDTO> updates) {
+            if (updates.isEmpty()) {
+                return;
+            }
+            List<Note> notes = new ArrayList<>(updates.size());
+            List<Long> noteIds = new ArrayList<>(updates.size());
+            for (NoteBatchOperationDTO operation : updates) {
+                notes.add(toNote(operation.getId(), operation));
+                noteIds.add(operation.getId());
+            }
+            noteRepository.updateAll(notes);
+            for (NoteBatchOperationDTO operation : updates) {
+                linkTags(operation.getId(), tagIdsByNoteId.getOrDefault(operation.getId(), Set.of()), operation.getTags());
+            }
+            noteSearchService.removeAll(noteIds);
+            noteSearchService.indexAll(notes);
+        }
+
+        // Tombstones are written before the rows they describe are deleted
+        private void writeDeletes(List<Long> noteIds) {
+            if (noteIds.isEmpty()) {
+                return;
+            }
+            syncTombstoneRepository.insertForNotes(username, noteIds, version, now);
+            noteSearchService.removeAll(noteIds);
+            noteRepository.deleteBodyChunksByNoteIdIn(noteIds);
+            noteRepository.deleteTagLinksByNoteIdIn(noteIds);
+            int deleted = noteRepository.deleteByIdIn(noteIds);
+            for (Long noteId : noteIds) {
+                for (Long tagId : tagIdsByNoteId.getOrDefault(noteId, Set.of())) {
+                    addUsage(tagId, -1, null);
+                }
+            }
+            userStatsService.notesDeleted(username, deleted);
+        }
+
+        // addTags and removeTags only write the links that change; notes whose
+        // tags changed get the batch's version
+        private void writeTagChanges(List<NoteBatchOperationDTO> tagChanges) {
+            Set<Long> changedNoteIds = new HashSet<>();
+            for (NoteBatchOperationDTO operation : tagChanges) {
+                Long noteId = operation.getId();
+                Set<Long> current = tagIdsByNoteId.getOrDefault(noteId, Set.of());
+                boolean add = NoteBatchOperationDTO.ADD_TAGS.equals(operation.getOp());
+                for (String name : tagNameNormalizer.normalize(operation.getTags())) {
+                    Long tagId = tagIdsByName.get(name);
+                    if (tagId == null || current.contains(tagId) == add) {
+                        continue;
+                    }
+                    (add ? linksToInsert : linksToDelete).add(new Object[] { noteId, tagId });
+                    addUsage(tagId, add ? 1 : -1, add ? now : null);
+                    changedNoteIds.add(noteId);
+                }
+            }
+            if (!changedNoteIds.isEmpty()) {
+                noteRepository.touchByIdIn(changedNoteIds, version, now);
+            }
+        }
+
+        private Note toNote(Long id, NoteBatchOperationDTO operation) {
+            Note note = new Note(operation.getContent(), username);
+            note.setId(id);
+            note.setTitle(operation.getTitle()); // Title can be null
+            note.setPreview(NoteText.preview(operation.getContent()));
+            note.setSyncVersion(version);
+            note.setCreatedAt(now);
+            note.setUpdatedAt(now);
+            return note;
+        }
+
+        // Links the note to the named tags, writing only the links that change as
+        // NoteService.updateNote does; the others stay as they are
+        private void linkTags(Long noteId, Set<Long> previousTagIds, List<String> rawTagNames) {
+            Set<Long> tagIds = new HashSet<>();
+            for (String name : tagNameNormalizer.normalize(rawTagNames)) {
+                tagIds.add(tagIdsByName.get(name));
+            }
+            for (Long tagId : tagIds) {
+                boolean linked = previousTagIds.contains(tagId);
+                if (!linked) {
+                    linksToInsert.add(new Object[] { noteId, tagId });
+                }
+                addUsage(tagId, linked ? 0 : 1, now);
+            }
+            for (Long tagId : previousTagIds) {
+                if (!tagIds.contains(tagId)) {
+                    linksToDelete.add(new Object[] { noteId, tagId });
+                    addUsage(tagId, -1, null);
+                }
+            }
+        }
+
+        private void addUsage(Long tagId, long delta, LocalDateTime usedAt) {
+            usageByTagId.merge(tagId, new TagRepositoryCustom.Usage(delta, usedAt),
+                (a, b) -> new TagRepositoryCustom.Usage(a.noteCountDelta() + b.noteCountDelta(),
+                    a.lastUsedAt() == null ? b.lastUsedAt() : a.lastUsedAt()));
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.tagnote.service;
+
+import com.example.tagnote.dto.NoteDTO;
+import com.example.tagnote.repository.NoteRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes all of a user's notes as NDJSON, one NoteDTO per line, in the format
+ * the bulk import reads. Rows go from a forward-only result set straight to the
+ * output stream, so memory use does not grow with the number of notes.
+ */
+@Service
+public class NoteExportService {
+
+    public enum Compression {
+        NONE, GZIP, ZIP
+    }
+
+    // Name of the NDJSON file inside a zip export
+    public static final String ZIP_ENTRY_NAME = "notes.ndjson";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    @Autowired
+    private NoteRepository noteRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.export.fetch-size:500}")
+    private int fetchSize;
+
+    // One read-only transaction, so the export is a consistent snapshot even while
+    // the user keeps writing. The output stream is flushed but not closed.
+    @Transactional(readOnly = true)
+    public void exportNotes(String username, Compression compression, OutputStream out) throws IOException {
+        switch (compression) {
+        case GZIP -> {
+            GZIPOutputStream gzip = new GZIPOutputStream(out, BUFFER_SIZE);
+            writeNdjson(username, gzip);
+            gzip.finish();
+        }
+        case ZIP -> {
+            ZipOutputStream zip = new ZipOutputStream(out);
+            zip.putNextEntry(new ZipEntry(ZIP_ENTRY_NAME));
+            writeNdjson(username, zip);
+            zip.closeEntry();
+            zip.finish();
+        }
+        default -> writeNdjson(username, out);
+        }
+        out.flush();
+    }
+
+    private void writeNdjson(String username, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(NoteDTO.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        // The generator buffers output and writes it out in chunks; lines are
+        // separated by the newline written after each note instead of the default space
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        try {
+            noteRepository.forEachByUsername(username, fetchSize, note -> {
+                try {
+                    writer.writeValue(generator, note);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        generator.close();
+    }
+}
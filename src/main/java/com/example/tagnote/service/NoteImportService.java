@@ -0,0 +1,318 @@
+package com.example.tagnote.service;
+
+import com.example.tagnote.dto.NoteDTO;
+import com.example.tagnote.dto.NoteImportErrorDTO;
+import com.example.tagnote.dto.NoteImportResultDTO;
+import com.example.tagnote.entity.Note;
+import com.example.tagnote.entity.NoteBody;
+import com.example.tagnote.entity.Tag;
+import com.example.tagnote.event.TagsChangedEvent;
+import com.example.tagnote.repository.NoteRepository;
+import com.example.tagnote.repository.TagRepository;
+import com.example.tagnote.repository.TagRepositoryCustom;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PushbackInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk import of notes from an NDJSON or JSON-array stream. Records are parsed
+ * one at a time and written in batches, each in its own write transaction, so
+ * memory use depends on the batch size and not on the size of the import. A
+ * record that cannot be parsed or validated is reported and skipped; the rest
+ * of the import carries on.
+ */
+@Service
+public class NoteImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NoteImportService.class);
+
+    @Autowired
+    private NoteRepository noteRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private TagNameNormalizer tagNameNormalizer;
+
+    @Autowired
+    private NoteSearchService noteSearchService;
+
+    @Autowired
+    private UserStatsService userStatsService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private SyncVersionService syncVersionService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    // Each record has the NoteDTO shape; id and username are ignored, missing
+    // createdAt/updatedAt default to now
+    public NoteImportResultDTO importNotes(InputStream input) throws IOException {
+        Import run = new Import(userService.getUsername());
+        PushbackInputStream stream = new PushbackInputStream(input, 1);
+        if (firstNonWhitespace(stream) == '[') {
+            readArray(stream, run);
+        } else {
+            readLines(stream, run);
+        }
+        run.flush();
+        logger.info("Imported {} notes for {}, {} failed", run.result.getImported(), run.username, run.result.getFailed());
+        return run.result;
+    }
+
+    private int firstNonWhitespace(PushbackInputStream stream) throws IOException {
+        int b;
+        do {
+            b = stream.read();
+        } while (b != -1 && Character.isWhitespace(b));
+        if (b != -1) {
+            stream.unread(b);
+        }
+        return b;
+    }
+
+    private void readLines(InputStream stream, Import run) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                run.add(lineNumber, objectMapper.readValue(line, NoteDTO.class));
+            } catch (JsonProcessingException e) {
+                run.fail(lineNumber, "Invalid JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    // Elements are read one at a time; a syntax error ends the import since the
+    // position of the next element is unknown
+    private void readArray(InputStream stream, Import run) throws IOException {
+        long element = 0;
+        try (JsonParser parser = objectMapper.getFactory().createParser(stream)) {
+            parser.nextToken();
+            while (true) {
+                // Counted before reading so errors point at the element being read
+                element++;
+                JsonToken token = parser.nextToken();
+                if (token == JsonToken.END_ARRAY) {
+                    break;
+                }
+                if (token == null) {
+                    run.fail(element, "Unexpected end of input, import stopped");
+                    return;
+                }
+                JsonNode node = objectMapper.readTree(parser);
+                try {
+                    run.add(element, objectMapper.treeToValue(node, NoteDTO.class));
+                } catch (JsonProcessingException e) {
+                    run.fail(element, "Invalid note: " + e.getOriginalMessage());
+                }
+            }
+        } catch (JsonProcessingException e) {
+            run.fail(element, "Invalid JSON, import stopped: " + e.getOriginalMessage());
+        }
+    }
+
+    private class Import {
+        private final String username;
+        private final NoteImportResultDTO result = new NoteImportResultDTO();
+        // Tag ids resolved so far in this import, so each name is looked up once
+        private final Map<String, Long> tagIdsByName = new HashMap<>();
+        private List<PendingNote> pending = new ArrayList<>();
+
+        Import(String username) {
+            this.username = username;
+        }
+
+        void add(long line, NoteDTO noteDTO) {
+            if (noteDTO == null) {
+                fail(line, "Expected a JSON object");
+                return;
+            }
+            if (isBlank(noteDTO.getTitle()) && isBlank(noteDTO.getContent())) {
+                fail(line, "Note has neither title nor content");
+                return;
+            }
+            if (noteDTO.getContent() != null && noteDTO.getContent().length() > NoteBody.MAX_LENGTH) {
+                fail(line, "Content is longer than " + NoteBody.MAX_LENGTH + " characters");
+                return;
+            }
+
+            Note note = new Note(noteDTO.getContent(), username);
+            note.setTitle(noteDTO.getTitle());
+            note.setPreview(NoteText.preview(noteDTO.getContent()));
+            if (noteDTO.getCreatedAt() != null) {
+                note.setCreatedAt(noteDTO.getCreatedAt());
+                note.setUpdatedAt(noteDTO.getCreatedAt());
+            }
+            if (noteDTO.getUpdatedAt() != null) {
+                note.setUpdatedAt(noteDTO.getUpdatedAt());
+            }
+            pending.add(new PendingNote(line, note, tagNameNormalizer.normalize(noteDTO.getTags())));
+            if (pending.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void fail(long line, String message) {
+            result.setFailed(result.getFailed() + 1);
+            if (result.getErrors().size() < maxReportedErrors) {
+                result.getErrors().add(new NoteImportErrorDTO(line, message));
+            } else {
+                result.setErrorsTruncated(true);
+            }
+        }
+
+        void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<PendingNote> batch = pending;
+            pending = new ArrayList<>();
+            try {
+                // Tags created by the batch are cached only once it has committed
+                Map<String, Long> resolvedTagIds = new TransactionTemplate(transactionManager).execute(status -> save(batch));
+                tagIdsByName.putAll(resolvedTagIds);
+                result.setImported(result.getImported() + batch.size());
+            } catch (RuntimeException e) {
+                logger.warn("Import batch for {} failed", username, e);
+                for (PendingNote pendingNote : batch) {
+                    fail(pendingNote.line, "Batch could not be saved: " + e.getMessage());
+                }
+            }
+        }
+
+        private Map<String, Long> save(List<PendingNote> batch) {
+            // Each batch is one write transaction and so one sync version
+            long version = syncVersionService.next(username);
+            Map<String, Long> resolvedTagIds = resolveUncachedTags(batch, version);
+
+            List<Note> notes = new ArrayList<>(batch.size());
+            for (PendingNote pendingNote : batch) {
+                pendingNote.note.setSyncVersion(version);
+                notes.add(pendingNote.note);
+            }
+            noteRepository.insertAll(notes);
+
+            List<Object[]> links = new ArrayList<>();
+            Map<Long, TagRepositoryCustom.Usage> usageByTagId = new HashMap<>();
+            LocalDateTime first = null;
+            LocalDateTime last = null;
+            for (PendingNote pendingNote : batch) {
+                LocalDateTime createdAt = pendingNote.note.getCreatedAt();
+                for (String tagName : pendingNote.tagNames) {
+                    Long tagId = tagIdsByName.containsKey(tagName) ? tagIdsByName.get(tagName) : resolvedTagIds.get(tagName);
+                    links.add(new Object[] { pendingNote.note.getId(), tagId });
+                    usageByTagId.merge(tagId, new TagRepositoryCustom.Usage(1, createdAt),
+                        (a, b) -> new TagRepositoryCustom.Usage(a.noteCountDelta() + 1,
+                            a.lastUsedAt().isAfter(b.lastUsedAt()) ? a.lastUsedAt() : b.lastUsedAt()));
+                }
+                first = first == null || createdAt.isBefore(first) ? createdAt : first;
+                last = last == null || createdAt.isAfter(last) ? createdAt : last;
+            }
+            noteRepository.insertTagLinks(links);
+            tagRepository.addUsage(usageByTagId);
+            noteSearchService.indexAll(notes);
+            userStatsService.notesCreated(username, notes.size(), first, last);
+            eventPublisher.publishEvent(new TagsChangedEvent(username));
+            return resolvedTagIds;
+        }
+
+        // Same find-then-insert as NoteService, for every tag of the batch not yet in
+        // the cache
+        private Map<String, Long> resolveUncachedTags(List<PendingNote> batch, long syncVersion) {
+            Set<String> uncached = new LinkedHashSet<>();
+            for (PendingNote pendingNote : batch) {
+                for (String tagName : pendingNote.tagNames) {
+                    if (!tagIdsByName.containsKey(tagName)) {
+                        uncached.add(tagName);
+                    }
+                }
+            }
+            Map<String, Long> resolvedTagIds = new HashMap<>();
+            if (uncached.isEmpty()) {
+                return resolvedTagIds;
+            }
+
+            List<String> names = new ArrayList<>(uncached);
+            for (Tag tag : tagRepository.findByUsernameAndNameIn(username, names)) {
+                resolvedTagIds.put(tag.getName(), tag.getId());
+            }
+            List<String> missingNames = new ArrayList<>();
+            for (String name : names) {
+                if (!resolvedTagIds.containsKey(name)) {
+                    missingNames.add(name);
+                }
+            }
+            if (!missingNames.isEmpty()) {
+                tagRepository.insertAll(username, missingNames, syncVersion);
+                for (Tag tag : tagRepository.findByUsernameAndNameIn(username, missingNames)) {
+                    resolvedTagIds.put(tag.getName(), tag.getId());
+                }
+                userStatsService.tagsCreated(username, missingNames.size());
+            }
+            return resolvedTagIds;
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static class PendingNote {
+        private final long line;
+        private final Note note;
+        private final List<String> tagNames;
+
+        PendingNote(long line, Note note, List<String> tagNames) {
+            this.line = line;
+            this.note = note;
+            this.tagNames = tagNames;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.tagnote.service;
+
+import com.example.tagnote.dto.NoteSearchHitDTO;
+import com.example.tagnote.dto.SearchCursor;
+import com.example.tagnote.entity.Note;
+import com.example.tagnote.repository.NoteFullTextRepository;
+import com.example.tagnote.repository.NoteRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.util.HtmlUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Full-text search over note titles and content, backed by the notes_fts FTS5
+ * table. The index is kept in sync by {@link NoteService} on every create,
+ * update and delete.
+ */
+@Service
+public class NoteSearchService {
+    private static final Logger logger = LoggerFactory.getLogger(NoteSearchService.class);
+
+    // The trigram tokenizer cannot match terms shorter than three characters
+    private static final int MIN_INDEXED_TERM_LENGTH = 3;
+    private static final int SCAN_SNIPPET_RADIUS = 30;
+    private static final int BACKFILL_BATCH_SIZE = 500;
+
+    @Autowired
+    private NoteFullTextRepository noteFullTextRepository;
+
+    @Autowired
+    private NoteRepository noteRepository;
+
+    @Autowired
+    private UserService userService;
+
+    // The FTS table is created by the V1 migration; index any notes written
+    // before it existed
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void initializeIndex() {
+        if (noteFullTextRepository.count() > 0 || noteRepository.count() == 0) {
+            return;
+        }
+        logger.info("Building full-text index for existing notes");
+        Page<Note> page = noteRepository.findAll(PageRequest.of(0, BACKFILL_BATCH_SIZE));
+        while (true) {
+            indexAll(page.getContent());
+            if (!page.hasNext()) {
+                break;
+            }
+            page = noteRepository.findAll(page.nextPageable());
+        }
+    }
+
+    public void index(Note note) {
+        noteFullTextRepository.save(note.getId(), note.getUsername(), NoteText.plainText(note.getTitle()),
+            NoteText.plainText(note.getContent()));
+    }
+
+    // Index notes that have no entry yet, as one batch
+    public void indexAll(List<Note> notes) {
+        List<Object[]> rows = new ArrayList<>(notes.size());
+        for (Note note : notes) {
+            rows.add(new Object[] { note.getId(), NoteText.plainText(note.getTitle()), NoteText.plainText(note.getContent()),
+                note.getUsername() });
+        }
+        noteFullTextRepository.saveAll(rows);
+    }
+
+    public void remove(Long noteId) {
+        noteFullTextRepository.deleteById(noteId);
+    }
+
+    public void removeAll(Collection<Long> noteIds) {
+        noteFullTextRepository.deleteAllById(noteIds);
+    }
+
+    // Set-based removal of every note carrying the tag; must run before the
+    // note_tags rows are deleted
+    public void removeByTagId(Long tagId) {
+        noteFullTextRepository.deleteByTagId(tagId);
+    }
+
+    @Transactional(readOnly = true)
+    public Slice<NoteSearchHitDTO> search(String query, SearchCursor cursor, int size) {
+        String username = userService.getUsername();
+        List<String> indexedTerms = new ArrayList<>();
+        List<String> shortTerms = new ArrayList<>();
+        for (String term : query.trim().split("\\s+")) {
+            if (term.isEmpty()) {
+                continue;
+            }
+            if (term.codePointCount(0, term.length()) >= MIN_INDEXED_TERM_LENGTH) {
+                indexedTerms.add(term);
+            } else {
+                shortTerms.add(term);
+            }
+        }
+        if (indexedTerms.isEmpty() && shortTerms.isEmpty()) {
+            return new SliceImpl<>(new ArrayList<>());
+        }
+
+        List<NoteSearchHitDTO> hits;
+        if (!indexedTerms.isEmpty()) {
+            boolean ranked = cursor != null && cursor.getScore() != null;
+            hits = noteFullTextRepository.search(username, toMatchExpression(indexedTerms), shortTerms,
+                ranked ? cursor.getScore() : null, ranked ? cursor.getId() : null, size + 1);
+        } else {
+            boolean chronological = cursor != null && cursor.getCreatedAt() != null;
+            hits = noteFullTextRepository.scan(username, shortTerms,
+                chronological ? cursor.getCreatedAt() : null, chronological ? cursor.getId() : null, size + 1);
+            hits.forEach(hit -> {
+                hit.setTitle(highlight(hit.getTitle(), shortTerms, Integer.MAX_VALUE));
+                hit.setSnippet(highlight(hit.getSnippet(), shortTerms, SCAN_SNIPPET_RADIUS));
+            });
+        }
+
+        boolean hasNext = hits.size() > size;
+        if (hasNext) {
+            hits = hits.subList(0, size);
+        }
+        hits.forEach(hit -> {
+            hit.setTitle(toHtml(hit.getTitle()));
+            hit.setSnippet(toHtml(hit.getSnippet()));
+        });
+        return new SliceImpl<>(hits, PageRequest.of(0, size), hasNext);
+    }
+
+    public SearchCursor cursorAfter(NoteSearchHitDTO hit) {
+        if (hit.getScore() != null) {
+            return SearchCursor.ranked(hit.getScore(), hit.getId());
+        }
+        return SearchCursor.chronological(hit.getCreatedAt(), hit.getId());
+    }
+
+    // Quote every term so FTS5 syntax characters in user input are matched
+    // literally; terms are ANDed
+    private String toMatchExpression(List<String> terms) {
+        StringBuilder expression = new StringBuilder();
+        for (String term : terms) {
+            if (expression.length() > 0) {
+                expression.append(' ');
+            }
+            expression.append('"').append(term.replace("\"", "\"\"")).append('"');
+        }
+        return expression.toString();
+    }
+
+    // Build a snippet around the first matching term and mark every occurrence,
+    // mirroring FTS5 snippet()
+    private String highlight(String text, List<String> terms, int radius) {
+        if (text == null || text.isEmpty()) {
+            return text;
+        }
+        int first = -1;
+        for (String term : terms) {
+            int index = text.indexOf(term);
+            if (index >= 0 && (first < 0 || index < first)) {
+                first = index;
+            }
+        }
+        if (first < 0) {
+            return radius == Integer.MAX_VALUE ? text : text.substring(0, Math.min(text.length(), radius * 2));
+        }
+        int start = radius == Integer.MAX_VALUE ? 0 : Math.max(0, first - radius);
+        int end = radius == Integer.MAX_VALUE ? text.length() : Math.min(text.length(), first + radius);
+        String window = text.substring(start, end);
+        for (String term : terms) {
+            window = window.replace(term, NoteFullTextRepository.HIGHLIGHT_START + term + NoteFullTextRepository.HIGHLIGHT_END);
+        }
+        return (start > 0 ? "…" : "") + window + (end < text.length() ? "…" : "");
+    }
+
+    // Escape the indexed plain text, then turn the highlight markers into <mark>
+    // tags
+    private String toHtml(String snippet) {
+        if (snippet == null) {
+            return null;
+        }
+        return HtmlUtils.htmlEscape(snippet)
+            .replace(NoteFullTextRepository.HIGHLIGHT_START, "<mark>")
+            .replace(NoteFullTextRepository.HIGHLIGHT_END, "</mark>");
+    }
+}
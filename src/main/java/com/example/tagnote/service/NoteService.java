@@ -1,22 +1,47 @@
 package com.example.tagnote.service;
 
+import com.example.tagnote.dto.NoteCursor;
+import com.example.tagnote.dto.NoteDTO;
+import com.example.tagnote.dto.NoteDayCountDTO;
+import com.example.tagnote.dto.NoteSummaryDTO;
 import com.example.tagnote.entity.Note;
 import com.example.tagnote.entity.Tag;
+import com.example.tagnote.event.NoteDeletedEvent;
+import com.example.tagnote.event.NoteSavedEvent;
+import com.example.tagnote.event.TagsCreatedEvent;
 import com.example.tagnote.repository.NoteRepository;
 import com.example.tagnote.repository.TagRepository;
-import com.example.tagnote.service.UserService;
+import com.example.tagnote.repository.TagRepositoryCustom;
+import io.micrometer.core.annotation.Timed;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
-import java.util.Arrays;
 
+// Every public method is timed as tagnote.service{class, method}
+@Timed("tagnote.service")
 @Service
 public class NoteService {
 
@@ -29,139 +54,438 @@ public class NoteService {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private TagNameNormalizer tagNameNormalizer;
+
+    @Autowired
+    private NoteSearchService noteSearchService;
+
+    @Autowired
+    private UserStatsService userStatsService;
+
+    @Autowired
+    private TagBitmapIndex tagBitmapIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private UserReadCache userReadCache;
+
+    @Autowired
+    private SyncVersionService syncVersionService;
+
+    // Cache weight of a list row besides its text
+    private static final int ROW_WEIGHT = 64;
+
+    @Value("${app.cache.note-pages:3}")
+    private int cachedNotePages;
+
+    @Value("${app.cache.note-page-size:100}")
+    private int cachedNotePageSize;
+
+    @Transactional(readOnly = true)
     public List<Note> getAllNotes() {
         String username = userService.getUsername();
         Pageable pageable = PageRequest.of(0, 1000); // Get all notes, capped at 1000
-        return noteRepository.findByUsernameOrderByCreatedAtDesc(username, pageable).getContent();
+        return withContent(noteRepository.findByUsernameOrderByCreatedAtDesc(username, pageable).getContent());
     }
 
+    @Transactional(readOnly = true)
     public Page<Note> getAllNotes(Pageable pageable) {
         String username = userService.getUsername();
-        return noteRepository.findByUsernameOrderByCreatedAtDesc(username, pageable);
+        return withContent(noteRepository.findByUsernameOrderByCreatedAtDesc(username, pageable));
     }
 
-    public Optional<Note> getNoteById(Long id) {
+    // A page of the full list as DTOs with their tag names. The first pages are
+    // cached as these DTOs, never as the managed entities, weighed by their size
+    @Transactional(readOnly = true)
+    public Page<NoteDTO> getNotePage(Pageable pageable) {
         String username = userService.getUsername();
-        return noteRepository.findById(id).filter(note -> note.getUsername().equals(username));
+        if (!isCachedPage(pageable)) {
+            return toDTOs(getAllNotes(pageable));
+        }
+        return userReadCache.get(username, UserReadCache.Region.NOTES, pageable, NoteService::weightOfNotes,
+            () -> toDTOs(getAllNotes(pageable)));
+    }
+
+    // Only the first pages are read often enough to be worth caching, and larger
+    // pages (the 1000-note lists) are left out
+    private boolean isCachedPage(Pageable pageable) {
+        return pageable.getPageNumber() < cachedNotePages && pageable.getPageSize() <= cachedNotePageSize;
     }
 
-    public Note saveNote(Note note) {
+    // Keyset pagination: a null cursor returns the first slice. A bounded range
+    // narrows the scan on (username, created_at) to the notes inside it
+    @Transactional(readOnly = true)
+    public Slice<Note> getNotesAfter(NoteCursor cursor, int size, NoteTimeRange range) {
         String username = userService.getUsername();
-        note.setUsername(username);
-        return noteRepository.save(note);
+        Pageable pageable = PageRequest.of(0, size);
+        if (range.isBounded()) {
+            NoteCursor start = range.startAfter(cursor);
+            return withContent(noteRepository.findByUsernameInRangeAfterCursor(username, range.fromOrEarliest(), start.getCreatedAt(),
+                start.getId(), pageable));
+        }
+        if (cursor == null) {
+            return withContent(noteRepository.findByUsernameOrderByCreatedAtDescIdDesc(username, pageable));
+        }
+        return withContent(noteRepository.findByUsernameAfterCursor(username, cursor.getCreatedAt(), cursor.getId(), pageable));
+    }
+
+    @Transactional(readOnly = true)
+    public long countNotes(NoteTimeRange range) {
+        String username = userService.getUsername();
+        if (range.isBounded()) {
+            return noteRepository.countByUsernameAndCreatedAtGreaterThanEqualAndCreatedAtLessThan(username, range.fromOrEarliest(),
+                range.toOrLatest());
+        }
+        return noteRepository.countByUsername(username);
     }
 
+    @Transactional(readOnly = true)
+    public Optional<Note> getNoteById(Long id) {
+        String username = userService.getUsername();
+        Optional<Note> note = noteRepository.findById(id).filter(n -> n.getUsername().equals(username));
+        // Callers read the tags and content after the transaction has ended
+        note.ifPresent(n -> {
+            Hibernate.initialize(n.getTags());
+            n.initializeContent();
+        });
+        return note;
+    }
+
+    // Notes returned to callers are read after the transaction has ended, so the
+    // chunks of CHUNKED bodies are loaded while it is open. List queries never
+    // read the chunk table otherwise.
+    private <C extends Iterable<Note>> C withContent(C notes) {
+        for (Note note : notes) {
+            note.initializeContent();
+        }
+        return notes;
+    }
+
+    @Transactional
     public Note createNote(String title, String content, List<String> tagNames) {
         String username = userService.getUsername();
         Note note = new Note(content, username);
         note.setTitle(title); // Title can be null
+        note.setPreview(NoteText.preview(content));
+        long version = syncVersionService.next(username);
+        note.setSyncVersion(version);
 
-        if (tagNames != null) {
-            for (String tagName : tagNames) {
-                // Support both regular comma and Chinese comma (、) as separators
-                String[] separatedTags = tagName.split("[,、]");
-                for (String separatedTag : separatedTags) {
-                    String trimmedTagName = separatedTag.trim();
-                    if (!trimmedTagName.isEmpty()) {
-                        Tag tag = tagRepository.findByNameAndUsername(trimmedTagName, username)
-                            .orElseGet(() -> {
-                                Tag newTag = new Tag(trimmedTagName, username);
-                                return tagRepository.save(newTag);
-                            });
-                        note.addTag(tag);
-                    }
-                }
-            }
+        for (Tag tag : resolveTags(username, tagNames, version)) {
+            note.addTag(tag);
         }
 
-        return noteRepository.save(note);
+        Note savedNote = noteRepository.save(note);
+        noteSearchService.index(savedNote);
+        userStatsService.noteCreated(username, savedNote.getCreatedAt());
+        recordTagUsage(Set.of(), tagIdsOf(savedNote), savedNote.getCreatedAt());
+        eventPublisher.publishEvent(new NoteSavedEvent(username, savedNote.getId(), savedNote.getCreatedAt(),
+            new HashSet<>(), tagNamesOf(savedNote)));
+        return savedNote;
     }
 
-    public Note updateNote(Long id, String title, String content, List<String> tagNames) {
+    // Replaces the title, content and tags; null if the note is not the user's.
+    // With expectedVersion (If-Match), a note changed since throws
+    // OptimisticLockingFailureException. A save that changes nothing writes
+    // nothing, and otherwise only the added and removed tag links are written.
+    @Transactional
+    public Note updateNote(Long id, String title, String content, List<String> tagNames, Long expectedVersion) {
         String username = userService.getUsername();
         Optional<Note> noteOptional = noteRepository.findById(id);
         if (noteOptional.isPresent() && noteOptional.get().getUsername().equals(username)) {
             Note note = noteOptional.get();
+            if (expectedVersion != null && note.getVersion() != expectedVersion) {
+                throw new OptimisticLockingFailureException("Note " + id + " is at version " + note.getVersion() + ", not "
+                    + expectedVersion);
+            }
+            List<String> names = tagNameNormalizer.normalize(tagNames);
+            Set<String> previousTagNames = tagNamesOf(note);
+            if (Objects.equals(title, note.getTitle()) && Objects.equals(content, note.getContent())
+                && previousTagNames.equals(new HashSet<>(names))) {
+                return note;
+            }
+
+            // Taken before the note is changed: its native statement would flush the
+            // note once now and once more at commit
+            long version = syncVersionService.next(username);
             note.setTitle(title); // Title can be null
             note.setContent(content);
+            note.setPreview(NoteText.preview(content));
+            note.setSyncVersion(version);
+            Set<Long> previousTagIds = tagIdsOf(note);
 
-            // Clear existing tags
-            note.getTags().clear();
-
-            // Add new tags
-            if (tagNames != null) {
-                for (String tagName : tagNames) {
-                    // Support both regular comma and Chinese comma (、) as separators
-                    String[] separatedTags = tagName.split("[,、]");
-                    for (String separatedTag : separatedTags) {
-                        String trimmedTagName = separatedTag.trim();
-                        if (!trimmedTagName.isEmpty()) {
-                            Tag tag = tagRepository.findByNameAndUsername(trimmedTagName, username)
-                                .orElseGet(() -> {
-                                    Tag newTag = new Tag(trimmedTagName, username);
-                                    return tagRepository.save(newTag);
-                                });
-                            note.addTag(tag);
-                        }
-                    }
+            // Touch only the links that change; the others stay as they are
+            List<Tag> tags = resolveTags(username, names, version);
+            Set<Long> tagIds = tags.stream().map(Tag::getId).collect(Collectors.toSet());
+            note.getTags().removeIf(tag -> !tagIds.contains(tag.getId()));
+            for (Tag tag : tags) {
+                if (!previousTagIds.contains(tag.getId())) {
+                    note.addTag(tag);
                 }
             }
 
-            return noteRepository.save(note);
+            Note savedNote = noteRepository.save(note);
+            noteSearchService.index(savedNote);
+            recordTagUsage(previousTagIds, tagIds, LocalDateTime.now());
+            eventPublisher.publishEvent(new NoteSavedEvent(username, savedNote.getId(), savedNote.getCreatedAt(),
+                previousTagNames, tagNamesOf(savedNote)));
+            return savedNote;
         }
         return null;
     }
 
+    // Find or create all tags in one IN query plus one batched insert for the
+    // missing ones. New tags get the version of the note write.
+    private List<Tag> resolveTags(String username, List<String> rawTagNames, long syncVersion) {
+        List<String> names = tagNameNormalizer.normalize(rawTagNames);
+        if (names.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Tag> tags = new ArrayList<>(tagRepository.findByUsernameAndNameIn(username, names));
+        Set<String> existingNames = tags.stream().map(Tag::getName).collect(Collectors.toSet());
+        List<String> missingNames = names.stream()
+            .filter(name -> !existingNames.contains(name))
+            .collect(Collectors.toList());
+
+        if (!missingNames.isEmpty()) {
+            tagRepository.insertAll(username, missingNames, syncVersion);
+            tags.addAll(tagRepository.findByUsernameAndNameIn(username, missingNames));
+            userStatsService.tagsCreated(username, missingNames.size());
+            eventPublisher.publishEvent(new TagsCreatedEvent(username, missingNames));
+        }
+        return tags;
+    }
+
+    @Transactional
     public void deleteNote(Long id) {
         String username = userService.getUsername();
         noteRepository.findById(id).ifPresent(note -> {
             if (note.getUsername().equals(username)) {
+                Set<String> tagNames = tagNamesOf(note);
+                recordTagUsage(tagIdsOf(note), Set.of(), null);
                 noteRepository.deleteById(id);
+                syncVersionService.noteDeleted(username, id, syncVersionService.next(username));
+                noteSearchService.remove(id);
+                userStatsService.notesDeleted(username, 1);
+                eventPublisher.publishEvent(new NoteDeletedEvent(username, id, tagNames));
             }
         });
     }
 
+    private Set<String> tagNamesOf(Note note) {
+        return note.getTags().stream().map(Tag::getName).collect(Collectors.toCollection(HashSet::new));
+    }
+
+    private Set<Long> tagIdsOf(Note note) {
+        return note.getTags().stream().map(Tag::getId).collect(Collectors.toSet());
+    }
+
+    // Tags only in previousTagIds lose the note, tags only in tagIds gain it, and
+    // every tag in tagIds was last used at usedAt
+    private void recordTagUsage(Set<Long> previousTagIds, Set<Long> tagIds, LocalDateTime usedAt) {
+        Map<Long, TagRepositoryCustom.Usage> usageByTagId = new HashMap<>();
+        for (Long tagId : previousTagIds) {
+            usageByTagId.put(tagId, new TagRepositoryCustom.Usage(-1, null));
+        }
+        for (Long tagId : tagIds) {
+            usageByTagId.put(tagId, new TagRepositoryCustom.Usage(previousTagIds.contains(tagId) ? 0 : 1, usedAt));
+        }
+        tagRepository.addUsage(usageByTagId);
+    }
+
+    @Transactional(readOnly = true)
     public List<Note> searchNotesByTags(List<String> tagNames) {
-        String username = userService.getUsername();
-        return noteRepository.findByTagNamesAndUsernameOrderByCreatedAtDesc(tagNames, username);
+        return searchNotesByTags(TagQuery.anyOf(tagNames), PageRequest.of(0, 1000)).getContent(); // Capped at 1000 like getAllNotes
     }
 
+    @Transactional(readOnly = true)
     public Page<Note> searchNotesByTags(List<String> tagNames, Pageable pageable) {
+        return searchNotesByTags(TagQuery.anyOf(tagNames), pageable);
+    }
+
+    // Resolve the matching ids and exact total from the tag index, then load only
+    // the requested page
+    @Transactional(readOnly = true)
+    public Page<Note> searchNotesByTags(TagQuery query, Pageable pageable) {
+        TagBitmapIndex.Result result = queryTagIndex(query, pageable);
+        List<Note> notes = inIdOrder(result.getNoteIds(), noteRepository.findAllById(result.getNoteIds()), Note::getId);
+        return new PageImpl<>(withContent(notes), pageable, result.getTotal());
+    }
+
+    private TagBitmapIndex.Result queryTagIndex(TagQuery query, Pageable pageable) {
         String username = userService.getUsername();
-        return noteRepository.findByTagNamesAndUsername(tagNames, username, pageable);
+        TagQuery normalizedQuery = new TagQuery(tagNameNormalizer.normalize(query.getAllOf()),
+            tagNameNormalizer.normalize(query.getAnyOf()), tagNameNormalizer.normalize(query.getNoneOf()));
+        return tagBitmapIndex.query(username, normalizedQuery, pageable.getOffset(), pageable.getPageSize());
     }
 
-    // Method to get distinct creation dates for calendar view
-    public List<LocalDateTime> getDistinctNoteDates() {
+    private static <T> List<T> inIdOrder(List<Long> ids, Iterable<T> items, Function<T, Long> idOf) {
+        Map<Long, T> itemsById = new HashMap<>();
+        for (T item : items) {
+            itemsById.put(idOf.apply(item), item);
+        }
+        return ids.stream().map(itemsById::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public Slice<Note> searchNotesByTagsAfter(List<String> tagNames, NoteCursor cursor, int size, NoteTimeRange range) {
         String username = userService.getUsername();
-        List<LocalDateTime> dates = noteRepository.findDistinctCreationDatesByUsername(username);
-        // Extract just the date part (without time) for comparison
-        return dates.stream()
-            .map(date -> date.toLocalDate().atStartOfDay())
-            .collect(Collectors.toList());
+        Pageable pageable = PageRequest.of(0, size);
+        if (range.isBounded()) {
+            NoteCursor start = range.startAfter(cursor);
+            return withContent(noteRepository.findByTagNamesAndUsernameInRangeAfterCursor(tagNames, username, range.fromOrEarliest(),
+                start.getCreatedAt(), start.getId(), pageable));
+        }
+        if (cursor == null) {
+            return withContent(noteRepository.findByTagNamesAndUsernameFirstSlice(tagNames, username, pageable));
+        }
+        return withContent(noteRepository.findByTagNamesAndUsernameAfterCursor(tagNames, username, cursor.getCreatedAt(), cursor.getId(),
+            pageable));
     }
 
-    // Method to get total number of notes
-    public long getTotalNoteCount() {
+    // Summary versions of the note lists, with the preview instead of the content
+    // and the tag names filled in
+
+    @Transactional(readOnly = true)
+    public List<NoteSummaryDTO> getAllNoteSummaries() {
+        return getNoteSummaries(PageRequest.of(0, 1000)).getContent(); // Capped at 1000 like getAllNotes
+    }
+
+    @Transactional(readOnly = true)
+    public Page<NoteSummaryDTO> getNoteSummaries(Pageable pageable) {
         String username = userService.getUsername();
-        Pageable pageable = PageRequest.of(0, 1); // We only need the count, so page size 1 is enough
-        return noteRepository.findByUsername(username, pageable).getTotalElements();
+        if (!isCachedPage(pageable)) {
+            return withTagNames(noteRepository.findSummariesByUsername(username, pageable));
+        }
+        return userReadCache.get(username, UserReadCache.Region.NOTES, List.of("summary", pageable), NoteService::weightOfSummaries,
+            () -> withTagNames(noteRepository.findSummariesByUsername(username, pageable)));
     }
 
-    // Method to get total number of tags
-    public long getTotalTagCount() {
+    @Transactional(readOnly = true)
+    public Slice<NoteSummaryDTO> getNoteSummariesAfter(NoteCursor cursor, int size, NoteTimeRange range) {
         String username = userService.getUsername();
-        return tagRepository.findByUsername(username).size();
+        Pageable pageable = PageRequest.of(0, size);
+        if (range.isBounded()) {
+            NoteCursor start = range.startAfter(cursor);
+            return withTagNames(noteRepository.findSummariesByUsernameInRangeAfterCursor(username, range.fromOrEarliest(),
+                start.getCreatedAt(), start.getId(), pageable));
+        }
+        if (cursor == null) {
+            return withTagNames(noteRepository.findSummariesByUsernameFirstSlice(username, pageable));
+        }
+        return withTagNames(noteRepository.findSummariesByUsernameAfterCursor(username, cursor.getCreatedAt(), cursor.getId(), pageable));
+    }
+
+    @Transactional(readOnly = true)
+    public Page<NoteSummaryDTO> searchNoteSummariesByTags(TagQuery query, Pageable pageable) {
+        TagBitmapIndex.Result result = queryTagIndex(query, pageable);
+        List<NoteSummaryDTO> summaries = inIdOrder(result.getNoteIds(), noteRepository.findSummariesByIdIn(result.getNoteIds()),
+            NoteSummaryDTO::getId);
+        return withTagNames(new PageImpl<>(summaries, pageable, result.getTotal()));
     }
 
-    // Method to get the earliest note creation date
-    public LocalDateTime getFirstNoteDate() {
+    @Transactional(readOnly = true)
+    public Slice<NoteSummaryDTO> searchNoteSummariesByTagsAfter(List<String> tagNames, NoteCursor cursor, int size,
+        NoteTimeRange range) {
         String username = userService.getUsername();
-        Pageable pageable = PageRequest.of(0, 1);
-        Page<Note> notes = noteRepository.findByUsername(username, pageable);
-        if (notes.hasContent()) {
-            return notes.getContent().get(0).getCreatedAt();
+        Pageable pageable = PageRequest.of(0, size);
+        if (range.isBounded()) {
+            NoteCursor start = range.startAfter(cursor);
+            return withTagNames(noteRepository.findSummariesByTagNamesAndUsernameInRangeAfterCursor(tagNames, username,
+                range.fromOrEarliest(), start.getCreatedAt(), start.getId(), pageable));
         }
-        return null;
+        if (cursor == null) {
+            return withTagNames(noteRepository.findSummariesByTagNamesAndUsernameFirstSlice(tagNames, username, pageable));
+        }
+        return withTagNames(noteRepository.findSummariesByTagNamesAndUsernameAfterCursor(tagNames, username, cursor.getCreatedAt(),
+            cursor.getId(), pageable));
+    }
+
+    private <S extends Slice<NoteSummaryDTO>> S withTagNames(S summaries) {
+        List<Long> noteIds = summaries.getContent().stream().map(NoteSummaryDTO::getId).collect(Collectors.toList());
+        Map<Long, List<String>> tagNamesByNoteId = getTagNamesByNoteIds(noteIds);
+        for (NoteSummaryDTO summary : summaries) {
+            summary.setTags(tagNamesByNoteId.getOrDefault(summary.getId(), new ArrayList<>()));
+        }
+        return summaries;
+    }
+
+    @Transactional(readOnly = true)
+    public long countNotesByTags(List<String> tagNames, NoteTimeRange range) {
+        String username = userService.getUsername();
+        if (range.isBounded()) {
+            return noteRepository.countByTagNamesAndUsernameInRange(tagNames, username, range.fromOrEarliest(), range.toOrLatest());
+        }
+        return noteRepository.countByTagNamesAndUsername(tagNames, username);
+    }
+
+    // Resolve tag names for many notes at once instead of initializing each lazy
+    // Note.tags. Not cached on its own: cached pages hold their tag names, and
+    // other id lists are seldom asked for twice.
+    @Transactional(readOnly = true)
+    public Map<Long, List<String>> getTagNamesByNoteIds(Collection<Long> noteIds) {
+        Map<Long, List<String>> tagNamesByNoteId = new HashMap<>();
+        if (noteIds.isEmpty()) {
+            return tagNamesByNoteId;
+        }
+        for (Object[] row : noteRepository.findTagNamesByNoteIds(noteIds)) {
+            tagNamesByNoteId.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((String) row[1]);
+        }
+        return tagNamesByNoteId;
+    }
+
+    // List DTOs for loaded notes, with the tag names of all of them read in one
+    // query
+    @Transactional(readOnly = true)
+    public List<NoteDTO> toDTOs(List<Note> notes) {
+        Map<Long, List<String>> tagNamesByNoteId = getTagNamesByNoteIds(notes.stream().map(Note::getId).collect(Collectors.toList()));
+        return notes.stream()
+            .map(note -> new NoteDTO(note.getId(), note.getTitle(), note.getContent(), note.getCreatedAt(), note.getUpdatedAt(),
+                note.getUsername(), tagNamesByNoteId.getOrDefault(note.getId(), new ArrayList<>())))
+            .collect(Collectors.toList());
+    }
+
+    private Page<NoteDTO> toDTOs(Page<Note> notes) {
+        return new PageImpl<>(toDTOs(notes.getContent()), notes.getPageable(), notes.getTotalElements());
+    }
+
+    // Cache weights: the characters a page holds, plus ROW_WEIGHT per row
+
+    private static int weightOfNotes(Page<NoteDTO> notes) {
+        long weight = 0;
+        for (NoteDTO note : notes) {
+            weight += ROW_WEIGHT + length(note.getTitle()) + length(note.getContent()) + weightOfTags(note.getTags());
+        }
+        return (int) Math.min(weight, Integer.MAX_VALUE);
+    }
+
+    private static int weightOfSummaries(Page<NoteSummaryDTO> summaries) {
+        long weight = 0;
+        for (NoteSummaryDTO summary : summaries) {
+            weight += ROW_WEIGHT + length(summary.getTitle()) + length(summary.getPreview()) + weightOfTags(summary.getTags());
+        }
+        return (int) Math.min(weight, Integer.MAX_VALUE);
+    }
+
+    private static long weightOfTags(List<String> tagNames) {
+        return tagNames.stream().mapToLong(NoteService::length).sum();
+    }
+
+    private static long length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    // Note counts per day for the calendar view, limited to [from, to] (both
+    // inclusive)
+    @Transactional(readOnly = true)
+    public List<NoteDayCountDTO> getNoteDayCounts(LocalDate from, LocalDate to) {
+        String username = userService.getUsername();
+        return userReadCache.get(username, UserReadCache.Region.DASHBOARD, List.of("dates", from, to),
+            () -> noteRepository.countNotesByDay(username, from.atStartOfDay(), to.plusDays(1).atStartOfDay()).stream()
+                .map(dayCount -> new NoteDayCountDTO(LocalDate.parse(dayCount.getDay()), dayCount.getNoteCount()))
+                .collect(Collectors.toList()));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,47 @@
+package com.example.tagnote.service;
+
+import org.springframework.web.util.HtmlUtils;
+
+import java.util.regex.Pattern;
+
+/**
+ * Text derived from a note's rich-text HTML content.
+ */
+public final class NoteText {
+
+    // Matches the length of the notes.preview column
+    public static final int PREVIEW_LENGTH = 200;
+
+    // Tags that break a line: their text is separated from its neighbours
+    private static final Pattern BLOCK_TAG = Pattern.compile(
+        "</?(?:address|article|aside|blockquote|br|dd|div|dl|dt|figcaption|figure|footer|h[1-6]|header|hr|li|main|nav|ol|p|pre|"
+            + "section|table|tbody|td|tfoot|th|thead|tr|ul)\\b[^>]*>",
+        Pattern.CASE_INSENSITIVE);
+
+    // Any other tag is inline formatting (b, span, a, ...) inside a run of text
+    private static final Pattern TAG = Pattern.compile("<[^>]*>");
+
+    private NoteText() {
+    }
+
+    // Notes are stored as rich-text HTML; only the visible text is indexed or
+    // previewed. Inline tags are dropped without a space, so formatting inside a
+    // word or a run of Chinese text does not split it for the trigram index.
+    public static String plainText(String html) {
+        if (html == null) {
+            return "";
+        }
+        String text = TAG.matcher(BLOCK_TAG.matcher(html).replaceAll(" ")).replaceAll("");
+        return HtmlUtils.htmlUnescape(text).replace('\u00A0', ' ').replaceAll("\\s+", " ").trim();
+    }
+
+    // The first PREVIEW_LENGTH characters of the visible text, never splitting a
+    // surrogate pair
+    public static String preview(String html) {
+        String text = plainText(html);
+        if (text.codePointCount(0, text.length()) <= PREVIEW_LENGTH) {
+            return text;
+        }
+        return text.substring(0, text.offsetByCodePoints(0, PREVIEW_LENGTH));
+    }
+}
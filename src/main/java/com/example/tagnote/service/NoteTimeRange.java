@@ -0,0 +1,67 @@
+package com.example.tagnote.service;
+
+import com.example.tagnote.dto.NoteCursor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Creation time range [from, to) for note lists, in server time like
+ * Note.createdAt. A null end leaves that side open.
+ */
+public class NoteTimeRange {
+
+    public static final NoteTimeRange ALL = new NoteTimeRange(null, null);
+
+    // Stand-ins for an open end in range queries; both are far inside the
+    // epoch-millisecond range SQLite stores timestamps in
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 1, 1, 0, 0);
+
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+
+    public NoteTimeRange(LocalDateTime from, LocalDateTime to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    // Whole calendar days from..to, both inclusive, as seen in the given zone
+    public static NoteTimeRange ofDays(LocalDate from, LocalDate to, ZoneId zone) {
+        return new NoteTimeRange(from == null ? null : toServerTime(from, zone), to == null ? null : toServerTime(to.plusDays(1), zone));
+    }
+
+    private static LocalDateTime toServerTime(LocalDate day, ZoneId zone) {
+        return day.atStartOfDay(zone).withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+    }
+
+    public boolean isBounded() {
+        return from != null || to != null;
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    LocalDateTime fromOrEarliest() {
+        return from != null ? from : EARLIEST;
+    }
+
+    LocalDateTime toOrLatest() {
+        return to != null ? to : LATEST;
+    }
+
+    // Lists run newest first, so the end of the range works as a cursor: the
+    // first page starts just before it, and a later cursor replaces it
+    NoteCursor startAfter(NoteCursor cursor) {
+        if (cursor != null && cursor.getCreatedAt().isBefore(toOrLatest())) {
+            return cursor;
+        }
+        return new NoteCursor(toOrLatest(), Long.MIN_VALUE);
+    }
+}
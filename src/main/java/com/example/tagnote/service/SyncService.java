@@ -0,0 +1,112 @@
+package com.example.tagnote.service;
+
+import com.example.tagnote.dto.NoteDTO;
+import com.example.tagnote.dto.SyncChangeDTO;
+import com.example.tagnote.dto.SyncCursor;
+import com.example.tagnote.dto.TagDTO;
+import com.example.tagnote.entity.Note;
+import com.example.tagnote.entity.Tag;
+import com.example.tagnote.repository.NoteRepository;
+import com.example.tagnote.repository.SyncChangeRepository;
+import com.example.tagnote.repository.TagRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Change feed for client sync. A client keeps the cursor of the last change it
+ * applied and asks for what came after it; versions are handed out by
+ * {@link SyncVersionService}.
+ */
+@Service
+public class SyncService {
+
+    @Autowired
+    private SyncChangeRepository syncChangeRepository;
+
+    @Autowired
+    private NoteRepository noteRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private NoteService noteService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private SyncVersionService syncVersionService;
+
+    // The changes and their payloads are read in one transaction, so a note is
+    // returned as it was at the version listed with it
+    @Transactional(readOnly = true)
+    public Slice<SyncChangeDTO> getChangesAfter(SyncCursor cursor, int size) {
+        String username = userService.getUsername();
+        List<SyncChangeDTO> changes = syncChangeRepository.findAfter(username, cursor, size + 1);
+        boolean hasNext = changes.size() > size;
+        if (hasNext) {
+            changes = new ArrayList<>(changes.subList(0, size));
+        }
+
+        List<Long> noteIds = new ArrayList<>();
+        List<Long> tagIds = new ArrayList<>();
+        for (SyncChangeDTO change : changes) {
+            if (!change.isDeleted()) {
+                (SyncChangeDTO.TYPE_NOTE.equals(change.getType()) ? noteIds : tagIds).add(change.getId());
+            }
+        }
+        Map<Long, NoteDTO> notesById = loadNotes(noteIds);
+        Map<Long, TagDTO> tagsById = new HashMap<>();
+        for (Tag tag : tagRepository.findAllById(tagIds)) {
+            tagsById.put(tag.getId(), new TagDTO(tag.getId(), tag.getName(), tag.getCreatedAt(), tag.getUsername()));
+        }
+        for (SyncChangeDTO change : changes) {
+            if (change.isDeleted()) {
+                continue;
+            }
+            if (SyncChangeDTO.TYPE_NOTE.equals(change.getType())) {
+                change.setNote(notesById.get(change.getId()));
+            } else {
+                change.setTag(tagsById.get(change.getId()));
+            }
+        }
+        return new SliceImpl<>(changes, PageRequest.of(0, size), hasNext);
+    }
+
+    private Map<Long, NoteDTO> loadNotes(List<Long> noteIds) {
+        Map<Long, NoteDTO> notesById = new HashMap<>();
+        if (noteIds.isEmpty()) {
+            return notesById;
+        }
+        Map<Long, List<String>> tagNamesByNoteId = noteService.getTagNamesByNoteIds(noteIds);
+        for (Note note : noteRepository.findAllById(noteIds)) {
+            notesById.put(note.getId(), new NoteDTO(note.getId(), note.getTitle(), note.getContent(), note.getCreatedAt(),
+                note.getUpdatedAt(), note.getUsername(), tagNamesByNoteId.getOrDefault(note.getId(), new ArrayList<>())));
+        }
+        return notesById;
+    }
+
+    public long currentVersion() {
+        return syncVersionService.current(userService.getUsername());
+    }
+
+    public SyncCursor cursorAfter(SyncChangeDTO change) {
+        SyncChangeDTO.Kind kind;
+        if (SyncChangeDTO.TYPE_NOTE.equals(change.getType())) {
+            kind = change.isDeleted() ? SyncChangeDTO.Kind.NOTE_DELETED : SyncChangeDTO.Kind.NOTE;
+        } else {
+            kind = change.isDeleted() ? SyncChangeDTO.Kind.TAG_DELETED : SyncChangeDTO.Kind.TAG;
+        }
+        return new SyncCursor(change.getVersion(), kind, change.getId());
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.tagnote.service;
+
+import com.example.tagnote.entity.SyncTombstone;
+import com.example.tagnote.repository.SyncTombstoneRepository;
+import com.example.tagnote.repository.SyncVersionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Hands out the per-user change versions behind the sync feed. A write
+ * transaction takes one version and stamps it on every note and tag it creates
+ * or changes, and on a tombstone for everything it deletes. Write transactions
+ * run one at a time on the single writer connection, so versions commit in the
+ * order they are handed out and a client that has seen version N has seen
+ * everything before it.
+ */
+@Service
+public class SyncVersionService {
+
+    @Autowired
+    private SyncVersionRepository syncVersionRepository;
+
+    @Autowired
+    private SyncTombstoneRepository syncTombstoneRepository;
+
+    // Must run inside the write transaction whose changes the version describes
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long next(String username) {
+        syncVersionRepository.increment(username);
+        return syncVersionRepository.findVersion(username);
+    }
+
+    @Transactional(readOnly = true)
+    public long current(String username) {
+        Long version = syncVersionRepository.findVersion(username);
+        return version == null ? 0 : version;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void noteDeleted(String username, Long noteId, long version) {
+        syncTombstoneRepository.save(new SyncTombstone(username, SyncTombstone.NOTE, noteId, version));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void tagDeleted(String username, Long tagId, long version) {
+        syncTombstoneRepository.save(new SyncTombstone(username, SyncTombstone.TAG, tagId, version));
+    }
+}
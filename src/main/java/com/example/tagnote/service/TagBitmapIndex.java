@@ -0,0 +1,292 @@
+package com.example.tagnote.service;
+
+import com.example.tagnote.event.NoteDeletedEvent;
+import com.example.tagnote.event.NoteSavedEvent;
+import com.example.tagnote.event.TagDeletedEvent;
+import com.example.tagnote.event.TagsChangedEvent;
+import com.example.tagnote.repository.NoteRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory index of note ids per tag, one compressed bitmap per tag and user.
+ * A user's index is loaded on first query and then kept current by the note
+ * write events {@link NoteService} publishes, applied after commit. Tag queries
+ * are answered with exact counts by bitmap AND/OR/ANDNOT; only the requested
+ * page of notes is then read from the database. At most
+ * app.tags.index.max-users users are indexed at a time, the least recently used
+ * are evicted and loaded again on their next query.
+ */
+@Component
+public class TagBitmapIndex {
+
+    // Below this many matches it is cheaper to sort the matches than to walk the
+    // user's notes in date order
+    private static final int SORT_THRESHOLD = 4096;
+
+    @Autowired
+    private NoteRepository noteRepository;
+
+    @Value("${app.tags.index.max-users:1000}")
+    private long maxUsers;
+
+    private Cache<String, UserTagIndex> indexes;
+
+    // Bumped on every write; a load that raced with a write is used once but not
+    // cached
+    private final Map<String, Long> writeVersions = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void initialize() {
+        indexes = Caffeine.newBuilder().maximumSize(maxUsers).build();
+    }
+
+    /**
+     * Ids of the matching notes in (createdAt DESC, id DESC) order, limited to
+     * [offset, offset + limit), and the total number of matches.
+     */
+    public Result query(String username, TagQuery query, long offset, int limit) {
+        return indexFor(username).query(query, offset, limit);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNoteSaved(NoteSavedEvent event) {
+        UserTagIndex index = recordWrite(event.getUsername());
+        if (index != null) {
+            index.save(event.getNoteId(), event.getCreatedAt(), event.getPreviousTagNames(), event.getTagNames());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNoteDeleted(NoteDeletedEvent event) {
+        UserTagIndex index = recordWrite(event.getUsername());
+        if (index != null) {
+            index.delete(event.getNoteId(), event.getTagNames());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTagsChanged(TagsChangedEvent event) {
+        drop(event.getUsername());
+    }
+
+    // A detached tag only loses its bitmap; deleted notes are not described one
+    // by one, so the index is rebuilt
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTagDeleted(TagDeletedEvent event) {
+        if (event.isNotesDeleted()) {
+            drop(event.getUsername());
+            return;
+        }
+        UserTagIndex index = recordWrite(event.getUsername());
+        if (index != null) {
+            index.removeTag(event.getTagName());
+        }
+    }
+
+    private synchronized void drop(String username) {
+        writeVersions.merge(username, 1L, Long::sum);
+        indexes.invalidate(username);
+    }
+
+    private synchronized UserTagIndex recordWrite(String username) {
+        writeVersions.merge(username, 1L, Long::sum);
+        return indexes.getIfPresent(username);
+    }
+
+    private UserTagIndex indexFor(String username) {
+        UserTagIndex index = indexes.getIfPresent(username);
+        if (index != null) {
+            return index;
+        }
+        long version = writeVersions.getOrDefault(username, 0L);
+        UserTagIndex loaded = new UserTagIndex();
+        for (Object[] row : noteRepository.findIdsAndCreatedAtByUsername(username)) {
+            loaded.save((Long) row[0], (LocalDateTime) row[1], new ArrayList<>(), new ArrayList<>());
+        }
+        for (Object[] row : noteRepository.findIdsAndTagNamesByUsername(username)) {
+            loaded.addTag((Long) row[0], (String) row[1]);
+        }
+        synchronized (this) {
+            if (writeVersions.getOrDefault(username, 0L) == version) {
+                return indexes.asMap().merge(username, loaded, (existing, ignored) -> existing);
+            }
+        }
+        return loaded;
+    }
+
+    public static class Result {
+        private final List<Long> noteIds;
+        private final long total;
+
+        Result(List<Long> noteIds, long total) {
+            this.noteIds = noteIds;
+            this.total = total;
+        }
+
+        public List<Long> getNoteIds() {
+            return noteIds;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+    }
+
+    private record NoteKey(LocalDateTime createdAt, long id) {
+    }
+
+    private static final Comparator<NoteKey> NEWEST_FIRST = Comparator
+        .comparing(NoteKey::createdAt, Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()))
+        .thenComparingLong(NoteKey::id)
+        .reversed();
+
+    private static class UserTagIndex {
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        // 64-bit bitmaps, as note ids are not bounded by Integer.MAX_VALUE
+        private final Map<String, Roaring64NavigableMap> notesByTag = new HashMap<>();
+        private final Roaring64NavigableMap allNotes = new Roaring64NavigableMap();
+        private final Map<Long, NoteKey> keys = new HashMap<>();
+        private final TreeSet<NoteKey> newestFirst = new TreeSet<>(NEWEST_FIRST);
+
+        Result query(TagQuery query, long offset, int limit) {
+            lock.readLock().lock();
+            try {
+                Roaring64NavigableMap matches = evaluate(query);
+                long total = matches.getLongCardinality();
+                List<Long> page = new ArrayList<>(limit);
+                if (offset >= total) {
+                    return new Result(page, total);
+                }
+                if (total <= SORT_THRESHOLD) {
+                    List<NoteKey> sorted = new ArrayList<>((int) total);
+                    matches.forEach((long id) -> sorted.add(keys.get(id)));
+                    sorted.sort(NEWEST_FIRST);
+                    for (int i = (int) offset; i < sorted.size() && page.size() < limit; i++) {
+                        page.add(sorted.get(i).id());
+                    }
+                } else {
+                    long skipped = 0;
+                    Iterator<NoteKey> iterator = newestFirst.iterator();
+                    while (iterator.hasNext() && page.size() < limit) {
+                        NoteKey key = iterator.next();
+                        if (matches.contains(key.id()) && skipped++ >= offset) {
+                            page.add(key.id());
+                        }
+                    }
+                }
+                return new Result(page, total);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private Roaring64NavigableMap evaluate(TagQuery query) {
+            Roaring64NavigableMap result = new Roaring64NavigableMap();
+            result.or(allNotes);
+            for (String tagName : query.getAllOf()) {
+                result.and(bitmap(tagName));
+            }
+            if (!query.getAnyOf().isEmpty()) {
+                Roaring64NavigableMap any = new Roaring64NavigableMap();
+                for (String tagName : query.getAnyOf()) {
+                    any.or(bitmap(tagName));
+                }
+                result.and(any);
+            }
+            for (String tagName : query.getNoneOf()) {
+                result.andNot(bitmap(tagName));
+            }
+            return result;
+        }
+
+        private Roaring64NavigableMap bitmap(String tagName) {
+            Roaring64NavigableMap bitmap = notesByTag.get(tagName);
+            return bitmap != null ? bitmap : new Roaring64NavigableMap();
+        }
+
+        void save(long id, LocalDateTime createdAt, Collection<String> previousTagNames, Collection<String> tagNames) {
+            lock.writeLock().lock();
+            try {
+                NoteKey previousKey = keys.put(id, new NoteKey(createdAt, id));
+                if (previousKey != null) {
+                    newestFirst.remove(previousKey);
+                }
+                newestFirst.add(keys.get(id));
+                allNotes.addLong(id);
+                removeFromTags(id, previousTagNames);
+                for (String tagName : tagNames) {
+                    notesByTag.computeIfAbsent(tagName, name -> new Roaring64NavigableMap()).addLong(id);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void addTag(long id, String tagName) {
+            lock.writeLock().lock();
+            try {
+                notesByTag.computeIfAbsent(tagName, name -> new Roaring64NavigableMap()).addLong(id);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void removeTag(String tagName) {
+            lock.writeLock().lock();
+            try {
+                notesByTag.remove(tagName);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void delete(long id, Collection<String> tagNames) {
+            lock.writeLock().lock();
+            try {
+                NoteKey key = keys.remove(id);
+                if (key != null) {
+                    newestFirst.remove(key);
+                }
+                allNotes.removeLong(id);
+                removeFromTags(id, tagNames);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        // A null tag list means the previous tags are unknown, so the note is removed
+        // from every tag
+        private void removeFromTags(long id, Collection<String> tagNames) {
+            Collection<String> names = tagNames != null ? tagNames : new ArrayList<>(notesByTag.keySet());
+            for (String tagName : names) {
+                Roaring64NavigableMap bitmap = notesByTag.get(tagName);
+                if (bitmap != null) {
+                    bitmap.removeLong(id);
+                    if (bitmap.isEmpty()) {
+                        notesByTag.remove(tagName);
+                    }
+                }
+            }
+        }
+    }
+}
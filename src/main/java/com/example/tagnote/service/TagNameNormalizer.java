@@ -0,0 +1,38 @@
+package com.example.tagnote.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Turns raw tag input into a clean, de-duplicated list of tag names.
+ */
+@Component
+public class TagNameNormalizer {
+
+    // Support both regular comma and Chinese comma (、) as separators
+    private static final String SEPARATORS = "[,、]";
+
+    public List<String> normalize(Collection<String> rawTagNames) {
+        if (rawTagNames == null) {
+            return new ArrayList<>();
+        }
+        Set<String> names = new LinkedHashSet<>();
+        for (String rawTagName : rawTagNames) {
+            if (rawTagName == null) {
+                continue;
+            }
+            for (String separatedTag : rawTagName.split(SEPARATORS)) {
+                String trimmedTagName = separatedTag.trim();
+                if (!trimmedTagName.isEmpty()) {
+                    names.add(trimmedTagName);
+                }
+            }
+        }
+        return new ArrayList<>(names);
+    }
+}
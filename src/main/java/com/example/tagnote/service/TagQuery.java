@@ -0,0 +1,37 @@
+package com.example.tagnote.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Boolean tag filter: notes carrying all of {@code allOf}, at least one of
+ * {@code anyOf} and none of {@code noneOf}. Empty lists do not constrain the
+ * result.
+ */
+public class TagQuery {
+    private final List<String> allOf;
+    private final List<String> anyOf;
+    private final List<String> noneOf;
+
+    public TagQuery(List<String> allOf, List<String> anyOf, List<String> noneOf) {
+        this.allOf = allOf == null ? new ArrayList<>() : allOf;
+        this.anyOf = anyOf == null ? new ArrayList<>() : anyOf;
+        this.noneOf = noneOf == null ? new ArrayList<>() : noneOf;
+    }
+
+    public static TagQuery anyOf(List<String> tagNames) {
+        return new TagQuery(null, tagNames, null);
+    }
+
+    public List<String> getAllOf() {
+        return allOf;
+    }
+
+    public List<String> getAnyOf() {
+        return anyOf;
+    }
+
+    public List<String> getNoneOf() {
+        return noneOf;
+    }
+}
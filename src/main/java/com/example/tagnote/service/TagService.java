@@ -1,14 +1,32 @@
 package com.example.tagnote.service;
 
+import com.example.tagnote.dto.TagDTO;
+import com.example.tagnote.dto.TagDeletionResultDTO;
+import com.example.tagnote.dto.TagMergeResultDTO;
+import com.example.tagnote.dto.TagSuggestionDTO;
 import com.example.tagnote.entity.Tag;
+import com.example.tagnote.event.TagDeletedEvent;
+import com.example.tagnote.event.TagsChangedEvent;
+import com.example.tagnote.event.TagsCreatedEvent;
+import com.example.tagnote.repository.NoteRepository;
+import com.example.tagnote.repository.SyncTombstoneRepository;
 import com.example.tagnote.repository.TagRepository;
-import com.example.tagnote.service.UserService;
+import com.example.tagnote.repository.TagRepositoryCustom;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
+// Every public method is timed as tagnote.service{class, method}
+@Timed("tagnote.service")
 @Service
 public class TagService {
 
@@ -16,40 +34,208 @@ public class TagService {
     private TagRepository tagRepository;
 
     @Autowired
-    private NoteService noteService;
+    private NoteRepository noteRepository;
+
+    @Autowired
+    private NoteSearchService noteSearchService;
 
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private UserStatsService userStatsService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private UserReadCache userReadCache;
+
+    @Autowired
+    private SyncVersionService syncVersionService;
+
+    @Autowired
+    private SyncTombstoneRepository syncTombstoneRepository;
+
+    @Autowired
+    private TagSuggestIndex tagSuggestIndex;
+
+    @Autowired
+    private TagNameNormalizer tagNameNormalizer;
+
+    @Transactional(readOnly = true)
     public List<Tag> getAllTags() {
         String username = userService.getUsername();
-        return tagRepository.findByUsername(username);
+        return userReadCache.get(username, UserReadCache.Region.TAGS, "all", TagService::weightOf,
+            () -> List.copyOf(tagRepository.findByUsername(username)));
     }
 
+    // Ordered by a stored column (name, noteCount or lastUsedAt), so no notes are
+    // read or counted
+    @Transactional(readOnly = true)
+    public List<Tag> getAllTags(Sort sort) {
+        String username = userService.getUsername();
+        return userReadCache.get(username, UserReadCache.Region.TAGS, sort, TagService::weightOf,
+            () -> List.copyOf(tagRepository.findByUsername(username, sort)));
+    }
+
+    // Cache weight of a tag list: the names plus a fixed amount per tag for its
+    // other fields
+    private static int weightOf(List<Tag> tags) {
+        return tags.stream().mapToInt(tag -> 64 + tag.getName().length()).sum();
+    }
+
+    // Served from memory; the index is loaded from the database on a user's
+    // first call
+    @Transactional(readOnly = true)
+    public List<TagSuggestionDTO> suggestTags(String prefix, int limit) {
+        return tagSuggestIndex.suggest(userService.getUsername(), prefix, limit);
+    }
+
+    @Transactional(readOnly = true)
     public Optional<Tag> getTagById(Long id) {
         String username = userService.getUsername();
         return tagRepository.findById(id).filter(tag -> tag.getUsername().equals(username));
     }
 
+    @Transactional
     public Tag saveTag(Tag tag) {
         String username = userService.getUsername();
         tag.setUsername(username);
-        return tagRepository.save(tag);
+        long version = syncVersionService.next(username);
+        tag.setSyncVersion(version);
+        boolean isNew = tag.getId() == null;
+        Tag savedTag = tagRepository.save(tag);
+        if (isNew) {
+            userStatsService.tagsCreated(username, 1);
+        } else {
+            // A renamed tag changes the tag names of its notes
+            noteRepository.updateSyncVersionByTagId(savedTag.getId(), version);
+        }
+        eventPublisher.publishEvent(isNew ? new TagsCreatedEvent(username, List.of(savedTag.getName())) : new TagsChangedEvent(username));
+        return savedTag;
+    }
+
+    /**
+     * Renames a tag. Its notes are not loaded: their links stay on the tag id, and
+     * their sync version is bumped in one statement. Returns empty if the tag does
+     * not exist or belongs to another user; throws IllegalArgumentException if the
+     * name is blank or holds a tag separator, and IllegalStateException if another
+     * tag of the user already has it (merge the tags instead).
+     */
+    @Transactional
+    public Optional<Tag> renameTag(Long id, String newName) {
+        List<String> names = tagNameNormalizer.normalize(newName == null ? List.of() : List.of(newName));
+        if (names.size() != 1) {
+            throw new IllegalArgumentException("Invalid tag name: " + newName);
+        }
+        String name = names.get(0);
+        String username = userService.getUsername();
+        Optional<Tag> tag = tagRepository.findById(id).filter(t -> t.getUsername().equals(username));
+        if (tag.isEmpty() || tag.get().getName().equals(name)) {
+            return tag;
+        }
+        Optional<Tag> existing = tagRepository.findByNameAndUsername(name, username);
+        if (existing.isPresent()) {
+            throw new IllegalStateException("Tag already exists: " + name);
+        }
+        tag.get().setName(name);
+        return Optional.of(saveTag(tag.get()));
+    }
+
+    /**
+     * Merges the source tag into the target in one transaction with set-based
+     * statements: the source's note links are copied to the target, skipping notes
+     * that already carry it, and then deleted together with the source tag. Cost
+     * grows with the source's links, not with the notes' content. Returns empty if
+     * either tag does not exist or belongs to another user; throws
+     * IllegalArgumentException if they are the same tag.
+     */
+    @Transactional
+    public Optional<TagMergeResultDTO> mergeTags(Long sourceId, Long targetId) {
+        if (Objects.equals(sourceId, targetId)) {
+            throw new IllegalArgumentException("Cannot merge a tag into itself");
+        }
+        String username = userService.getUsername();
+        Optional<Tag> source = tagRepository.findById(sourceId).filter(t -> t.getUsername().equals(username));
+        Optional<Tag> target = tagRepository.findById(targetId).filter(t -> t.getUsername().equals(username));
+        if (source.isEmpty() || target.isEmpty()) {
+            return Optional.empty();
+        }
+
+        // The source's notes change their tag names; the tombstone is written before
+        // the tag is deleted. The target's sync payload (id, name, creation) stays
+        // the same, so it keeps its version.
+        long version = syncVersionService.next(username);
+        noteRepository.updateSyncVersionByTagId(sourceId, version);
+        int moved = tagRepository.copyNoteTags(sourceId, targetId);
+        int links = tagRepository.deleteNoteTagsByTagId(sourceId);
+        syncVersionService.tagDeleted(username, sourceId, version);
+        int tags = tagRepository.deleteTagById(sourceId);
+        tagRepository.addUsage(Map.of(targetId, new TagRepositoryCustom.Usage(moved, source.get().getLastUsedAt())));
+        userStatsService.tagsDeleted(username, tags);
+        eventPublisher.publishEvent(new TagsChangedEvent(username));
+
+        // The target entity was loaded before its usage was updated
+        Tag merged = target.get();
+        LocalDateTime lastUsedAt = merged.getLastUsedAt();
+        if (lastUsedAt == null || source.get().getLastUsedAt() != null && source.get().getLastUsedAt().isAfter(lastUsedAt)) {
+            lastUsedAt = source.get().getLastUsedAt();
+        }
+        TagDTO targetDTO = new TagDTO(merged.getId(), merged.getName(), merged.getCreatedAt(), merged.getUsername(),
+            merged.getNoteCount() + moved, lastUsedAt);
+        return Optional.of(new TagMergeResultDTO(moved, links - moved, targetDTO));
     }
 
-    public void deleteTag(Long id) {
+    /**
+     * Deletes a tag with a handful of set-based statements in one transaction. By
+     * default the notes carrying the tag are deleted too, along with any other tags
+     * left without notes; with {@code detachOnly} only the tag and its links are
+     * removed and the notes are kept. Returns empty if the tag does not exist or
+     * belongs to another user.
+     */
+    @Transactional
+    public Optional<TagDeletionResultDTO> deleteTag(Long id, boolean detachOnly) {
         String username = userService.getUsername();
-        // Get the tag to find all notes associated with it
-        tagRepository.findById(id).ifPresent(tag -> {
-            if (tag.getUsername().equals(username)) {
-                // Delete all notes associated with this tag
-                tag.getNotes().forEach(note -> noteService.deleteNote(note.getId()));
-                // Delete the tag itself
-                tagRepository.deleteById(id);
+        Optional<Tag> tag = tagRepository.findById(id).filter(t -> t.getUsername().equals(username));
+        if (tag.isEmpty()) {
+            return Optional.empty();
+        }
+
+        // Tombstones are written before the rows they describe are deleted
+        long version = syncVersionService.next(username);
+        LocalDateTime now = LocalDateTime.now();
+        TagDeletionResultDTO result;
+        if (detachOnly) {
+            noteRepository.updateSyncVersionByTagId(id, version);
+            int links = tagRepository.deleteNoteTagsByTagId(id);
+            int tags = tagRepository.deleteTagById(id);
+            result = new TagDeletionResultDTO(links, 0, tags);
+        } else {
+            List<Long> coTagIds = tagRepository.findCoTagIds(id);
+            noteSearchService.removeByTagId(id);
+            syncTombstoneRepository.insertForNotesTaggedWith(username, id, version, now);
+            noteRepository.deleteBodyChunksByTagId(id);
+            int notes = noteRepository.deleteByUsernameAndTagId(username, id);
+            int links = tagRepository.deleteNoteTagsOfNotesTaggedWith(id);
+            int tags = tagRepository.deleteTagById(id);
+            if (!coTagIds.isEmpty()) {
+                syncTombstoneRepository.insertForOrphanTags(username, coTagIds, version, now);
+                tags += tagRepository.deleteOrphansByIdIn(coTagIds);
+                tagRepository.recountUsageByIdIn(coTagIds);
+            }
+            result = new TagDeletionResultDTO(links, notes, tags);
+            if (notes > 0) {
+                userStatsService.notesDeleted(username, notes);
             }
-        });
+        }
+        syncVersionService.tagDeleted(username, id, version);
+        userStatsService.tagsDeleted(username, result.getTagsDeleted());
+        eventPublisher.publishEvent(new TagDeletedEvent(username, tag.get().getName(), !detachOnly));
+        return Optional.of(result);
     }
 
+    @Transactional(readOnly = true)
     public Optional<Tag> getTagByName(String name) {
         String username = userService.getUsername();
         return tagRepository.findByNameAndUsername(name, username);
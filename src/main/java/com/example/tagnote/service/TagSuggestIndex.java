@@ -0,0 +1,237 @@
+package com.example.tagnote.service;
+
+import com.example.tagnote.dto.TagSuggestionDTO;
+import com.example.tagnote.event.NoteDeletedEvent;
+import com.example.tagnote.event.NoteSavedEvent;
+import com.example.tagnote.event.TagDeletedEvent;
+import com.example.tagnote.event.TagsChangedEvent;
+import com.example.tagnote.event.TagsCreatedEvent;
+import com.example.tagnote.repository.TagRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory tag name prefix index per user, for autocomplete. Names are matched
+ * on their folded form: compatibility-decomposed, without accents or tone
+ * marks, lower case. So "ni" finds "Nǐhǎo" and "ab" finds "ＡＢＣ", and CJK names
+ * match by their leading characters. Every word of a name can be matched, not
+ * only the first. Matches are ranked by how many notes carry the tag. Loaded on
+ * first query, like {@link TagBitmapIndex}, and kept current by the tag and
+ * note write events.
+ */
+@Component
+public class TagSuggestIndex {
+
+    // Marks left over after decomposition: accents, pinyin tone marks, the
+    // diaeresis of ü
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    // Word separators within a tag name; each word after one is indexed too
+    private static final Pattern WORD_SEPARATORS = Pattern.compile("[\\s\\-_/.·:]+");
+
+    // Separates the folded key from the tag name in an index entry
+    private static final char KEY_END = '\u0000';
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    private final Map<String, UserSuggestIndex> indexes = new ConcurrentHashMap<>();
+
+    // Bumped on every write; a load that raced with a write is used once but not
+    // cached
+    private final Map<String, Long> writeVersions = new ConcurrentHashMap<>();
+
+    public List<TagSuggestionDTO> suggest(String username, String prefix, int limit) {
+        return indexFor(username).suggest(fold(prefix == null ? "" : prefix.trim()), limit);
+    }
+
+    static String fold(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFKD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTagsCreated(TagsCreatedEvent event) {
+        UserSuggestIndex index = recordWrite(event.getUsername());
+        if (index != null) {
+            index.addUsage(event.getTagNames(), 0);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNoteSaved(NoteSavedEvent event) {
+        if (event.getPreviousTagNames() == null) {
+            drop(event.getUsername());
+            return;
+        }
+        UserSuggestIndex index = recordWrite(event.getUsername());
+        if (index != null) {
+            Set<String> added = new HashSet<>(event.getTagNames());
+            added.removeAll(event.getPreviousTagNames());
+            Set<String> removed = new HashSet<>(event.getPreviousTagNames());
+            removed.removeAll(event.getTagNames());
+            index.addUsage(added, 1);
+            index.addUsage(removed, -1);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNoteDeleted(NoteDeletedEvent event) {
+        UserSuggestIndex index = recordWrite(event.getUsername());
+        if (index != null) {
+            index.addUsage(event.getTagNames(), -1);
+        }
+    }
+
+    // Deleting a tag's notes changes the counts of the tags they shared, so the
+    // index is rebuilt then
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTagDeleted(TagDeletedEvent event) {
+        if (event.isNotesDeleted()) {
+            drop(event.getUsername());
+            return;
+        }
+        UserSuggestIndex index = recordWrite(event.getUsername());
+        if (index != null) {
+            index.remove(event.getTagName());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTagsChanged(TagsChangedEvent event) {
+        drop(event.getUsername());
+    }
+
+    private synchronized UserSuggestIndex recordWrite(String username) {
+        writeVersions.merge(username, 1L, Long::sum);
+        return indexes.get(username);
+    }
+
+    private synchronized void drop(String username) {
+        writeVersions.merge(username, 1L, Long::sum);
+        indexes.remove(username);
+    }
+
+    private UserSuggestIndex indexFor(String username) {
+        UserSuggestIndex index = indexes.get(username);
+        if (index != null) {
+            return index;
+        }
+        long version = writeVersions.getOrDefault(username, 0L);
+        UserSuggestIndex loaded = new UserSuggestIndex();
+        for (Object[] row : tagRepository.findNamesAndNoteCountsByUsername(username)) {
+            loaded.addUsage(List.of((String) row[0]), ((Number) row[1]).longValue());
+        }
+        synchronized (this) {
+            if (writeVersions.getOrDefault(username, 0L) == version) {
+                UserSuggestIndex existing = indexes.putIfAbsent(username, loaded);
+                return existing != null ? existing : loaded;
+            }
+        }
+        return loaded;
+    }
+
+    private static final Comparator<Map.Entry<String, Long>> MOST_USED_FIRST = Comparator.<Map.Entry<String, Long>>comparingLong(
+        Map.Entry::getValue)
+        .reversed()
+        .thenComparing(Map.Entry::getKey);
+
+    private static class UserSuggestIndex {
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        // Tag name to number of notes
+        private final Map<String, Long> noteCounts = new HashMap<>();
+        // Folded word + KEY_END + tag name to tag name, one entry per word of
+        // each name, in sorted order so the entries for a prefix form one range
+        private final NavigableMap<String, String> keys = new TreeMap<>();
+
+        List<TagSuggestionDTO> suggest(String prefix, int limit) {
+            lock.readLock().lock();
+            try {
+                // Keeps the best `limit` matches, worst on top
+                PriorityQueue<Map.Entry<String, Long>> best = new PriorityQueue<>(limit + 1, MOST_USED_FIRST.reversed());
+                Set<String> seen = new HashSet<>();
+                for (String name : keys.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+                    if (seen.add(name)) {
+                        best.add(Map.entry(name, noteCounts.get(name)));
+                        if (best.size() > limit) {
+                            best.poll();
+                        }
+                    }
+                }
+                List<Map.Entry<String, Long>> ranked = new ArrayList<>(best);
+                ranked.sort(MOST_USED_FIRST);
+                List<TagSuggestionDTO> suggestions = new ArrayList<>(ranked.size());
+                for (Map.Entry<String, Long> entry : ranked) {
+                    suggestions.add(new TagSuggestionDTO(entry.getKey(), entry.getValue()));
+                }
+                return suggestions;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        // Adds names not yet indexed with the given count
+        void addUsage(Collection<String> tagNames, long delta) {
+            lock.writeLock().lock();
+            try {
+                for (String name : tagNames) {
+                    Long count = noteCounts.get(name);
+                    if (count == null) {
+                        noteCounts.put(name, Math.max(0, delta));
+                        for (String key : keysOf(name)) {
+                            keys.put(key, name);
+                        }
+                    } else {
+                        noteCounts.put(name, Math.max(0, count + delta));
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(String tagName) {
+            lock.writeLock().lock();
+            try {
+                if (noteCounts.remove(tagName) != null) {
+                    keys.keySet().removeAll(keysOf(tagName));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private static List<String> keysOf(String tagName) {
+            String folded = fold(tagName);
+            List<String> keys = new ArrayList<>();
+            keys.add(folded + KEY_END + tagName);
+            Matcher separators = WORD_SEPARATORS.matcher(folded);
+            while (separators.find()) {
+                if (separators.end() < folded.length()) {
+                    keys.add(folded.substring(separators.end()) + KEY_END + tagName);
+                }
+            }
+            return keys;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.tagnote.service;
+
+import com.example.tagnote.event.NoteDeletedEvent;
+import com.example.tagnote.event.NoteSavedEvent;
+import com.example.tagnote.event.TagDeletedEvent;
+import com.example.tagnote.event.TagsChangedEvent;
+import com.example.tagnote.event.TagsCreatedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Per-user cache for read views that are requested far more often than they
+ * change, bounded by the total weight (about the characters) of its values.
+ * Each user's views are grouped into regions, and every entry is keyed by its
+ * region's current generation. Write events bump the generation after commit,
+ * before the write call returns. A value loaded before the commit stays under
+ * the old generation and is never served again, so no lock is needed between
+ * loads and writes.
+ * <p>
+ * Generations are taken from one clock, which is also read when a transaction
+ * begins. A load inside a transaction that began before the region's last
+ * invalidation may read a snapshot from before that write, so it is returned
+ * without being cached.
+ */
+@Component
+public class UserReadCache implements TransactionExecutionListener {
+
+    public enum Region {
+        // TagService.getAllTags
+        TAGS,
+        // The first note list pages, as DTOs with their tag names
+        NOTES,
+        // Statistics and calendar day counts
+        DASHBOARD
+    }
+
+    // Weight of a view without a weigher: statistics, calendar counts
+    private static final int DEFAULT_WEIGHT = 1024;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    // Total weight of the cached values, roughly the characters they hold
+    @Value("${app.cache.maximum-weight:16000000}")
+    private long maximumWeight;
+
+    @Value("${app.cache.time-to-live:10m}")
+    private Duration timeToLive;
+
+    private Cache<Key, Entry> cache;
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private final ConcurrentMap<RegionKey, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    // Clock value at the start of each transaction open on this thread, innermost
+    // first
+    private final ThreadLocal<Deque<TransactionStart>> transactionStarts = ThreadLocal.withInitial(ArrayDeque::new);
+
+    @PostConstruct
+    void initialize() {
+        cache = Caffeine.newBuilder()
+            .maximumWeight(maximumWeight)
+            .weigher((Key key, Entry entry) -> entry.weight())
+            .expireAfterWrite(timeToLive)
+            .recordStats()
+            .build();
+        // cache.gets{result=hit|miss}, cache.evictions, cache.size
+        CaffeineCacheMetrics.monitor(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry), cache, "tagnote.user-read");
+    }
+
+    // Cached value of a view, loading it on a miss; view must have value
+    // equality (a string, record, list or Pageable)
+    public <T> T get(String username, Region region, Object view, Supplier<T> loader) {
+        return get(username, region, view, value -> DEFAULT_WEIGHT, loader);
+    }
+
+    // Same, for views whose size varies: weigher estimates the characters a value
+    // holds. A value heavier than the whole cache is returned but not kept.
+    @SuppressWarnings("unchecked")
+    public <T> T get(String username, Region region, Object view, ToIntFunction<? super T> weigher, Supplier<T> loader) {
+        long generation = generation(username, region).get();
+        TransactionStart transaction = transactionStarts.get().peek();
+        if (transaction != null && transaction.clock() < generation) {
+            return loader.get();
+        }
+        Key key = new Key(username, region, generation, view);
+        Entry entry = cache.getIfPresent(key);
+        if (entry != null) {
+            return (T) entry.value();
+        }
+        // Loaded outside the cache's locks; a concurrent miss may load it twice
+        T value = loader.get();
+        if (value != null) {
+            cache.put(key, new Entry(value, Math.max(1, weigher.applyAsInt(value))));
+        }
+        return value;
+    }
+
+    public void invalidate(String username, Region... regions) {
+        long now = clock.incrementAndGet();
+        for (Region region : regions) {
+            generation(username, region).accumulateAndGet(now, Math::max);
+        }
+    }
+
+    // For writes that publish no event; like the event listeners, waits for the
+    // current transaction to commit
+    public void invalidateAfterCommit(String username, Region... regions) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(username, regions);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate(username, regions);
+            }
+        });
+    }
+
+    @Override
+    public void afterBegin(TransactionExecution transaction, Throwable beginFailure) {
+        if (beginFailure == null && transaction.isNewTransaction()) {
+            transactionStarts.get().push(new TransactionStart(transaction, clock.get()));
+        }
+    }
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        ended(transaction);
+    }
+
+    @Override
+    public void afterRollback(TransactionExecution transaction, Throwable rollbackFailure) {
+        ended(transaction);
+    }
+
+    private void ended(TransactionExecution transaction) {
+        Deque<TransactionStart> starts = transactionStarts.get();
+        starts.removeIf(start -> start.transaction() == transaction);
+        if (starts.isEmpty()) {
+            transactionStarts.remove();
+        }
+    }
+
+    private AtomicLong generation(String username, Region region) {
+        return generations.computeIfAbsent(new RegionKey(username, region), key -> new AtomicLong());
+    }
+
+    // Tag list entries carry note counts and last use, so note writes change them
+    // too
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNoteSaved(NoteSavedEvent event) {
+        invalidate(event.getUsername(), Region.values());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNoteDeleted(NoteDeletedEvent event) {
+        invalidate(event.getUsername(), Region.values());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTagsCreated(TagsCreatedEvent event) {
+        invalidate(event.getUsername(), Region.TAGS, Region.DASHBOARD);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTagsChanged(TagsChangedEvent event) {
+        invalidate(event.getUsername(), Region.values());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTagDeleted(TagDeletedEvent event) {
+        invalidate(event.getUsername(), Region.values());
+    }
+
+    private record RegionKey(String username, Region region) {
+    }
+
+    private record TransactionStart(TransactionExecution transaction, long clock) {
+    }
+
+    private record Key(String username, Region region, long generation, Object view) {
+    }
+
+    private record Entry(Object value, int weight) {
+    }
+}
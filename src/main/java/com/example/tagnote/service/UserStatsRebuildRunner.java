@@ -0,0 +1,24 @@
+package com.example.tagnote.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Repair command: start the application with {@code --rebuild-stats} to
+ * recompute every user's statistics from the notes and tags tables.
+ */
+@Component
+public class UserStatsRebuildRunner implements ApplicationRunner {
+
+    @Autowired
+    private UserStatsService userStatsService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (args.containsOption("rebuild-stats")) {
+            userStatsService.rebuildAll();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.tagnote.service;
+
+import com.example.tagnote.entity.UserStats;
+import com.example.tagnote.repository.NoteRepository;
+import com.example.tagnote.repository.TagRepository;
+import com.example.tagnote.repository.UserStatsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Maintains the per-user {@link UserStats} row. Note and tag writes call in
+ * here inside their own transaction, so the dashboard never needs to count the
+ * base tables. A missing row is rebuilt from the base tables on demand.
+ */
+@Service
+public class UserStatsService {
+    private static final Logger logger = LoggerFactory.getLogger(UserStatsService.class);
+
+    @Autowired
+    private UserStatsRepository userStatsRepository;
+
+    @Autowired
+    private NoteRepository noteRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserReadCache userReadCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Read on the reader pool; only a missing row takes the writer
+    @Transactional(readOnly = true)
+    public UserStats getStatistics() {
+        String username = userService.getUsername();
+        return userReadCache.get(username, UserReadCache.Region.DASHBOARD, "statistics",
+            () -> userStatsRepository.findById(username).orElseGet(() -> rebuildInNewTransaction(username)));
+    }
+
+    // Rebuilds in a write transaction of its own, for callers inside a read-only
+    // one
+    public UserStats rebuildInNewTransaction(String username) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return transactionTemplate.execute(status -> rebuild(username));
+    }
+
+    public void noteCreated(String username, LocalDateTime createdAt) {
+        notesCreated(username, 1, createdAt, createdAt);
+    }
+
+    public void notesCreated(String username, long count, LocalDateTime firstCreatedAt, LocalDateTime lastCreatedAt) {
+        if (userStatsRepository.addNotes(username, count, firstCreatedAt, lastCreatedAt) == 0) {
+            rebuild(username);
+        }
+    }
+
+    // The deleted notes may have bounded the range, so re-read it; both lookups are
+    // index seeks
+    public void notesDeleted(String username, long count) {
+        if (userStatsRepository.removeNotes(username, count) == 0) {
+            rebuild(username);
+            return;
+        }
+        userStatsRepository.setNoteRange(username, noteRepository.findFirstCreatedAtByUsername(username),
+            noteRepository.findLastCreatedAtByUsername(username));
+    }
+
+    public void tagsCreated(String username, long count) {
+        if (userStatsRepository.addTags(username, count) == 0) {
+            rebuild(username);
+        }
+    }
+
+    public void tagsDeleted(String username, long count) {
+        tagsCreated(username, -count);
+    }
+
+    // Recompute a user's row from the notes and tags tables
+    @Transactional
+    public UserStats rebuild(String username) {
+        UserStats stats = userStatsRepository.findById(username).orElseGet(() -> new UserStats(username));
+        stats.setNoteCount(noteRepository.countByUsername(username));
+        stats.setTagCount(tagRepository.countByUsername(username));
+        stats.setFirstNoteAt(noteRepository.findFirstCreatedAtByUsername(username));
+        stats.setLastNoteAt(noteRepository.findLastCreatedAtByUsername(username));
+        userReadCache.invalidateAfterCommit(username, UserReadCache.Region.DASHBOARD);
+        return userStatsRepository.save(stats);
+    }
+
+    @Transactional
+    public UserStats rebuildCurrentUser() {
+        return rebuild(userService.getUsername());
+    }
+
+    @Transactional
+    public int rebuildAll() {
+        Set<String> usernames = new TreeSet<>(noteRepository.findDistinctUsernames());
+        usernames.addAll(tagRepository.findDistinctUsernames());
+        for (String username : usernames) {
+            rebuild(username);
+        }
+        logger.info("Rebuilt statistics for {} users", usernames.size());
+        return usernames.size();
+    }
+}
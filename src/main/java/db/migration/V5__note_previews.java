@@ -0,0 +1,62 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.web.util.HtmlUtils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Fills notes.preview for existing notes. Written in Java because the preview
+ * is the visible text of the HTML content, which SQL cannot extract. The text
+ * extraction is a copy of NoteText as of this migration, so later changes to
+ * NoteText do not change what this migration writes.
+ */
+public class V5__note_previews extends BaseJavaMigration {
+
+    private static final int BATCH_SIZE = 1000;
+
+    // Length of the notes.preview column
+    private static final int PREVIEW_LENGTH = 200;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        try (Statement select = connection.createStatement();
+            ResultSet rows = select.executeQuery("SELECT id, content FROM notes WHERE preview IS NULL");
+            PreparedStatement update = connection.prepareStatement("UPDATE notes SET preview = ? WHERE id = ?")) {
+            int pending = 0;
+            while (rows.next()) {
+                update.setString(1, preview(rows.getString(2)));
+                update.setLong(2, rows.getLong(1));
+                update.addBatch();
+                if (++pending == BATCH_SIZE) {
+                    update.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                update.executeBatch();
+            }
+        }
+    }
+
+    private static String preview(String html) {
+        String text = plainText(html);
+        if (text.codePointCount(0, text.length()) <= PREVIEW_LENGTH) {
+            return text;
+        }
+        return text.substring(0, text.offsetByCodePoints(0, PREVIEW_LENGTH));
+    }
+
+    private static String plainText(String html) {
+        if (html == null) {
+            return "";
+        }
+        String text = html.replaceAll("<[^>]*>", " ");
+        return HtmlUtils.htmlUnescape(text).replace('\u00A0', ' ').replaceAll("\\s+", " ").trim();
+    }
+}
@@ -0,0 +1,89 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.io.ByteArrayOutputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+/**
+ * Re-encodes the content copied as plain UTF-8 by V6, compressing (and if need
+ * be chunking) every body large enough for it. The encoding is a copy of
+ * NoteBody.encode as of this migration, so later changes to NoteBody do not
+ * change what this migration writes.
+ */
+public class V7__compress_note_bodies extends BaseJavaMigration {
+
+    private static final int BATCH_SIZE = 1000;
+
+    // NoteBody's thresholds when this migration was written
+    private static final int COMPRESS_THRESHOLD = 512;
+    private static final int INLINE_LIMIT = 32 * 1024;
+    private static final int CHUNK_SIZE = 32 * 1024;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        try (Statement select = connection.createStatement();
+            ResultSet rows = select.executeQuery("SELECT id, body FROM notes WHERE body_encoding = 'PLAIN' AND body IS NOT NULL");
+            PreparedStatement update = connection.prepareStatement("UPDATE notes SET body_encoding = ?, body = ? WHERE id = ?");
+            PreparedStatement insertChunk = connection
+                .prepareStatement("INSERT INTO note_body_chunks (note_id, seq, data) VALUES (?, ?, ?)")) {
+            int pending = 0;
+            while (rows.next()) {
+                long id = rows.getLong(1);
+                byte[] utf8 = rows.getBytes(2);
+                if (utf8.length < COMPRESS_THRESHOLD) {
+                    continue;
+                }
+                byte[] deflated = deflate(utf8);
+                if (deflated.length >= utf8.length) {
+                    continue;
+                }
+                boolean chunked = deflated.length > INLINE_LIMIT;
+                update.setString(1, chunked ? "CHUNKED" : "DEFLATE");
+                update.setBytes(2, chunked ? null : deflated);
+                update.setLong(3, id);
+                update.addBatch();
+                if (chunked) {
+                    for (int offset = 0, seq = 0; offset < deflated.length; offset += CHUNK_SIZE, seq++) {
+                        insertChunk.setLong(1, id);
+                        insertChunk.setInt(2, seq);
+                        insertChunk.setBytes(3, Arrays.copyOfRange(deflated, offset, Math.min(offset + CHUNK_SIZE, deflated.length)));
+                        insertChunk.addBatch();
+                    }
+                }
+                if (++pending == BATCH_SIZE) {
+                    update.executeBatch();
+                    insertChunk.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                update.executeBatch();
+                insertChunk.executeBatch();
+            }
+        }
+    }
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater();
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+}
@@ -0,0 +1,3 @@
+-- The indexed text no longer puts a space where inline tags were removed. Emptying notes_fts makes
+-- NoteSearchService.initializeIndex rebuild it from the notes table on the next start.
+DELETE FROM notes_fts;
@@ -0,0 +1,37 @@
+-- Baseline schema, matching what spring.jpa.hibernate.ddl-auto=update produced before migrations were introduced.
+-- Every statement is idempotent so an existing tag-note.db is brought under version control unchanged.
+
+CREATE TABLE IF NOT EXISTS notes (
+    id integer,
+    content varchar(10000),
+    created_at timestamp,
+    title varchar(255),
+    updated_at timestamp,
+    username varchar(255),
+    primary key (id)
+);
+
+CREATE TABLE IF NOT EXISTS tags (
+    id integer,
+    created_at timestamp,
+    name varchar(255) not null unique,
+    username varchar(255),
+    primary key (id)
+);
+
+CREATE TABLE IF NOT EXISTS note_tags (
+    note_id bigint not null,
+    tag_id bigint not null,
+    primary key (note_id, tag_id)
+);
+
+CREATE TABLE IF NOT EXISTS user_stats (
+    username varchar(255) not null,
+    first_note_at timestamp,
+    last_note_at timestamp,
+    note_count bigint not null,
+    tag_count bigint not null,
+    primary key (username)
+);
+
+CREATE VIRTUAL TABLE IF NOT EXISTS notes_fts USING fts5(title, content, username UNINDEXED, tokenize = 'trigram');
@@ -0,0 +1,35 @@
+-- Tag names are unique per user, not globally. SQLite cannot drop a column constraint, so the table is rebuilt.
+CREATE TABLE tags_new (
+    id integer,
+    created_at timestamp,
+    name varchar(255) not null,
+    username varchar(255),
+    primary key (id)
+);
+INSERT INTO tags_new (id, created_at, name, username) SELECT id, created_at, name, username FROM tags;
+DROP TABLE tags;
+ALTER TABLE tags_new RENAME TO tags;
+
+-- Databases created by an older entity still have notes.title NOT NULL although titles are optional
+CREATE TABLE notes_new (
+    id integer,
+    content varchar(10000),
+    created_at timestamp,
+    title varchar(255),
+    updated_at timestamp,
+    username varchar(255),
+    primary key (id)
+);
+INSERT INTO notes_new (id, content, created_at, title, updated_at, username)
+    SELECT id, content, created_at, title, updated_at, username FROM notes;
+DROP TABLE notes;
+ALTER TABLE notes_new RENAME TO notes;
+
+-- findByUsername, findByNameAndUsername, findByUsernameAndNameIn
+CREATE UNIQUE INDEX ux_tags_username_name ON tags (username, name);
+
+-- Note lists, cursor pages, calendar ranges and first/last note lookups, all per user in (created_at, id) order
+CREATE INDEX idx_notes_username_created_at_id ON notes (username, created_at, id);
+
+-- Tag-to-notes lookups; the primary key already covers note-to-tags
+CREATE INDEX idx_note_tags_tag_id_note_id ON note_tags (tag_id, note_id);
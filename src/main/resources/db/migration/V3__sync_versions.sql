@@ -0,0 +1,30 @@
+-- Change feed for client sync. Every write transaction takes the next version from the user's counter and stamps it on
+-- the rows it creates or changes; deletions leave a tombstone carrying the version.
+ALTER TABLE notes ADD COLUMN sync_version bigint not null default 0;
+ALTER TABLE tags ADD COLUMN sync_version bigint not null default 0;
+
+CREATE TABLE sync_versions (
+    username varchar(255) not null,
+    version bigint not null,
+    primary key (username)
+);
+
+CREATE TABLE sync_tombstones (
+    id integer,
+    username varchar(255) not null,
+    entity_type varchar(16) not null,
+    entity_id bigint not null,
+    sync_version bigint not null,
+    deleted_at timestamp,
+    primary key (id)
+);
+
+-- Existing data becomes version 1 of each user
+UPDATE notes SET sync_version = 1;
+UPDATE tags SET sync_version = 1;
+INSERT INTO sync_versions (username, version)
+    SELECT username, 1 FROM (SELECT username FROM notes UNION SELECT username FROM tags) WHERE username IS NOT NULL;
+
+CREATE INDEX idx_notes_username_sync_version_id ON notes (username, sync_version, id);
+CREATE INDEX idx_tags_username_sync_version_id ON tags (username, sync_version, id);
+CREATE INDEX idx_sync_tombstones_username_type_version_id ON sync_tombstones (username, entity_type, sync_version, entity_id);
@@ -0,0 +1,21 @@
+-- Summary lists read a short preview instead of the full content. SQLite reads a row's columns in order and follows
+-- the overflow pages of a long value to reach any column after it, so the table is rebuilt with content last: reading
+-- every other column then stops before the content's overflow pages. Previews are filled in by V5.
+CREATE TABLE notes_new (
+    id integer,
+    title varchar(255),
+    created_at timestamp,
+    updated_at timestamp,
+    username varchar(255),
+    sync_version bigint not null default 0,
+    preview varchar(200),
+    content varchar(10000),
+    primary key (id)
+);
+INSERT INTO notes_new (id, title, created_at, updated_at, username, sync_version, content)
+    SELECT id, title, created_at, updated_at, username, sync_version, content FROM notes;
+DROP TABLE notes;
+ALTER TABLE notes_new RENAME TO notes;
+
+CREATE INDEX idx_notes_username_created_at_id ON notes (username, created_at, id);
+CREATE INDEX idx_notes_username_sync_version_id ON notes (username, sync_version, id);
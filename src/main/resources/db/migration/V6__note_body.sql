@@ -0,0 +1,31 @@
+-- Content is stored encoded (see NoteBody): body holds UTF-8 or deflated UTF-8, and bodies that are still large after
+-- compression go to note_body_chunks. Existing content is copied as UTF-8; V7 compresses it. The table is rebuilt so
+-- that body stays the last column.
+CREATE TABLE notes_new (
+    id integer,
+    title varchar(255),
+    created_at timestamp,
+    updated_at timestamp,
+    username varchar(255),
+    sync_version bigint not null default 0,
+    preview varchar(200),
+    body_encoding varchar(16) not null default 'PLAIN',
+    body blob,
+    primary key (id)
+);
+INSERT INTO notes_new (id, title, created_at, updated_at, username, sync_version, preview, body_encoding, body)
+    SELECT id, title, created_at, updated_at, username, sync_version, preview, 'PLAIN', CAST(content AS BLOB) FROM notes;
+DROP TABLE notes;
+ALTER TABLE notes_new RENAME TO notes;
+
+CREATE INDEX idx_notes_username_created_at_id ON notes (username, created_at, id);
+CREATE INDEX idx_notes_username_sync_version_id ON notes (username, sync_version, id);
+
+CREATE TABLE note_body_chunks (
+    id integer,
+    note_id bigint not null,
+    seq integer not null,
+    data blob not null,
+    primary key (id)
+);
+CREATE INDEX idx_note_body_chunks_note_id_seq ON note_body_chunks (note_id, seq);
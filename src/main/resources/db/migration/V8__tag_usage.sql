@@ -0,0 +1,9 @@
+-- Per-tag usage for tag listings and clouds: the number of notes carrying the tag and the latest creation or edit time
+-- of one of them. Maintained by the note writes (see TagRepositoryCustom.addUsage) instead of counted per request.
+ALTER TABLE tags ADD COLUMN note_count bigint not null default 0;
+ALTER TABLE tags ADD COLUMN last_used_at timestamp;
+
+UPDATE tags SET
+    note_count = (SELECT COUNT(*) FROM note_tags WHERE tag_id = tags.id),
+    last_used_at = (SELECT MAX(COALESCE(n.updated_at, n.created_at)) FROM note_tags nt JOIN notes n ON n.id = nt.note_id
+        WHERE nt.tag_id = tags.id);
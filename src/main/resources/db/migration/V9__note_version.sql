@@ -0,0 +1,3 @@
+-- Optimistic locking for note edits: bumped by every write that changes a note's title, content or tags, and
+-- returned as the ETag of PUT /api/notes/{id}, which If-Match is checked against.
+ALTER TABLE notes ADD COLUMN version bigint not null default 0;
@@ -92,15 +92,17 @@ async function loadStatistics() {
     }
 }
 
-// Load note dates for calendar
+// Load note counts for the 64 days the calendar shows
 async function loadNoteDates() {
     try {
-        const response = await fetch(`${API_BASE}/notes/dates`);
-        const dates = await response.json();
-        // Convert date strings to Date objects and extract just the date part
-        noteDates = dates.map(dateStr => {
-            const date = new Date(dateStr);
-            return new Date(date.getFullYear(), date.getMonth(), date.getDate());
+        const today = new Date();
+        const fromDate = new Date(today.getFullYear(), today.getMonth(), today.getDate() - 63);
+        const response = await fetch(`${API_BASE}/notes/dates?from=${formatIsoDate(fromDate)}&to=${formatIsoDate(today)}`);
+        const dayCounts = await response.json();
+        // Each entry is { day: 'yyyy-MM-dd', noteCount }
+        noteDates = dayCounts.map(dayCount => {
+            const [year, month, day] = dayCount.day.split('-').map(Number);
+            return new Date(year, month - 1, day);
         });
         renderCalendar();
     } catch (error) {
@@ -108,6 +110,11 @@ async function loadNoteDates() {
     }
 }
 
+// Format a Date as yyyy-MM-dd in local time
+function formatIsoDate(date) {
+    return `${date.getFullYear()}-${String(date.getMonth() + 1).padStart(2, '0')}-${String(date.getDate()).padStart(2, '0')}`;
+}
+
 // Render statistics to the sidebar
 function renderStatistics(statistics) {
     if (!statistics) {
@@ -0,0 +1,105 @@
+package com.example.tagnote.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 64 clients writing at once queue for the single writer connection instead of
+ * failing: no statement gives up with SQLITE_BUSY and every note is stored.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("loadtest")
+class SQLiteWriterConcurrencyTest {
+
+    private static final int WRITERS = 64;
+    private static final int NOTES_PER_WRITER = 10;
+    private static final int READERS = 8;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) throws IOException {
+        Path directory = Files.createTempDirectory("tagnote-test");
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + directory.resolve("tag-note.db"));
+    }
+
+    @Test
+    void parallelWritersDoNotHitBusyErrors() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS + READERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> clients = new ArrayList<>();
+        try {
+            for (int writer = 0; writer < WRITERS; writer++) {
+                String user = "writer-" + (writer % 8);
+                int id = writer;
+                clients.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < NOTES_PER_WRITER; i++) {
+                        mockMvc.perform(post("/api/notes").header(LoadTestSecurityConfig.USER_HEADER, user)
+                            .contentType("application/json")
+                            .content("{\"title\":\"Note " + id + "-" + i + "\",\"content\":\"<p>content</p>\",\"tags\":[\"tag-"
+                                + (i % 5) + "\",\"shared\"]}"))
+                            .andExpect(status().isCreated());
+                    }
+                    return null;
+                }));
+            }
+            for (int reader = 0; reader < READERS; reader++) {
+                String user = "writer-" + reader;
+                clients.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < NOTES_PER_WRITER; i++) {
+                        mockMvc.perform(get("/api/notes/paginated").header(LoadTestSecurityConfig.USER_HEADER, user))
+                            .andExpect(status().isOk());
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> client : clients) {
+                client.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notes", Long.class)).isEqualTo(WRITERS * NOTES_PER_WRITER);
+        assertThat(busyTimeouts("sqlite-writer")).isZero();
+        assertThat(busyTimeouts("sqlite-reader")).isZero();
+    }
+
+    private double busyTimeouts(String pool) {
+        return meterRegistry.get("tagnote.sqlite.busy.timeouts").tag("pool", pool).counter().count();
+    }
+}
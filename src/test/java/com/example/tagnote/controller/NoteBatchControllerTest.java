@@ -0,0 +1,188 @@
+package com.example.tagnote.controller;
+
+import com.example.tagnote.config.LoadTestSecurityConfig;
+import com.example.tagnote.dto.NoteBatchOperationDTO;
+import com.example.tagnote.dto.NoteBatchRequestDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * POST /api/notes/batch: an atomic batch with a failing operation writes
+ * nothing, a best-effort batch writes the operations that pass, a note may be
+ * changed by only one operation and only by its owner, and tag counts and
+ * links follow every kind of operation.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("loadtest")
+class NoteBatchControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) throws IOException {
+        Path directory = Files.createTempDirectory("tagnote-test");
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + directory.resolve("tag-note.db"));
+    }
+
+    @Test
+    void atomicBatchWithAFailingOperationWritesNothing() throws Exception {
+        String user = "atomic";
+        long kept = createNote(user, "atomic-old");
+        long missing = kept + 1000;
+
+        batch(user, NoteBatchRequestDTO.ATOMIC,
+            new NoteBatchOperationDTO(NoteBatchOperationDTO.CREATE, null, "New", "<p>new</p>", List.of("atomic-new")),
+            new NoteBatchOperationDTO(NoteBatchOperationDTO.UPDATE, missing, "Gone", "<p>gone</p>", List.of()),
+            new NoteBatchOperationDTO("rename", kept, null, null, List.of()),
+            new NoteBatchOperationDTO(NoteBatchOperationDTO.DELETE, kept, null, null, List.of()))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.committed").value(false))
+            .andExpect(jsonPath("$.results[0].status").value("SKIPPED"))
+            .andExpect(jsonPath("$.results[1].status").value("NOT_FOUND"))
+            .andExpect(jsonPath("$.results[2].status").value("INVALID"))
+            .andExpect(jsonPath("$.results[3].status").value("SKIPPED"));
+
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM notes WHERE username = ?", Long.class, user)).containsExactly(kept);
+        assertThat(tagCounts(user)).containsExactly(Map.entry("atomic-old", 1L));
+    }
+
+    @Test
+    void bestEffortBatchWritesTheOperationsThatPass() throws Exception {
+        String user = "best-effort";
+        long deleted = createNote(user, "effort-old");
+        long missing = deleted + 1000;
+
+        String response = batch(user, NoteBatchRequestDTO.BEST_EFFORT,
+            new NoteBatchOperationDTO(NoteBatchOperationDTO.CREATE, null, "New", "<p>new</p>", List.of("effort-new")),
+            new NoteBatchOperationDTO(NoteBatchOperationDTO.UPDATE, missing, "Gone", "<p>gone</p>", List.of()),
+            new NoteBatchOperationDTO(NoteBatchOperationDTO.DELETE, deleted, null, null, List.of()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.committed").value(true))
+            .andExpect(jsonPath("$.results[0].status").value("OK"))
+            .andExpect(jsonPath("$.results[1].status").value("NOT_FOUND"))
+            .andExpect(jsonPath("$.results[2].status").value("OK"))
+            .andReturn().getResponse().getContentAsString();
+
+        long created = objectMapper.readTree(response).at("/results/0/id").asLong();
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM notes WHERE username = ?", Long.class, user)).containsExactly(created);
+        assertThat(tagCounts(user)).containsOnly(Map.entry("effort-old", 0L), Map.entry("effort-new", 1L));
+    }
+
+    @Test
+    void aNoteChangedTwiceOrOwnedByAnotherUserIsRejected() throws Exception {
+        long mine = createNote("batch-owner", "shared");
+        long theirs = createNote("batch-other", "shared");
+
+        batch("batch-owner", NoteBatchRequestDTO.BEST_EFFORT,
+            new NoteBatchOperationDTO(NoteBatchOperationDTO.ADD_TAGS, mine, null, null, List.of("first")),
+            new NoteBatchOperationDTO(NoteBatchOperationDTO.ADD_TAGS, mine, null, null, List.of("second")),
+            new NoteBatchOperationDTO(NoteBatchOperationDTO.DELETE, theirs, null, null, List.of()),
+            new NoteBatchOperationDTO(NoteBatchOperationDTO.REMOVE_TAGS, theirs, null, null, List.of("shared")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.results[0].status").value("OK"))
+            .andExpect(jsonPath("$.results[1].status").value("INVALID"))
+            .andExpect(jsonPath("$.results[2].status").value("NOT_FOUND"))
+            .andExpect(jsonPath("$.results[3].status").value("INVALID"));
+
+        assertThat(tagCounts("batch-owner")).containsOnly(Map.entry("shared", 1L), Map.entry("first", 1L));
+        assertThat(tagCounts("batch-other")).containsOnly(Map.entry("shared", 1L));
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM note_tags WHERE note_id = ?", Long.class, theirs)).isEqualTo(1);
+    }
+
+    @Test
+    void tagCountsAndLinksFollowEveryKindOfOperation() throws Exception {
+        String user = "counts";
+        long updated = createNote(user, "alpha", "beta");
+        long deleted = createNote(user, "alpha", "gamma");
+        long tagged = createNote(user, "beta");
+        recordLinkChanges();
+
+        batch(user, NoteBatchRequestDTO.ATOMIC,
+            new NoteBatchOperationDTO(NoteBatchOperationDTO.CREATE, null, "New", "<p>new</p>", List.of("alpha", "delta")),
+            new NoteBatchOperationDTO(NoteBatchOperationDTO.UPDATE, updated, "Updated", "<p>updated</p>", List.of("beta", "delta")),
+            new NoteBatchOperationDTO(NoteBatchOperationDTO.DELETE, deleted, null, null, List.of()),
+            new NoteBatchOperationDTO(NoteBatchOperationDTO.ADD_TAGS, tagged, null, null, List.of("beta", "gamma")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.committed").value(true));
+
+        assertThat(tagCounts(user)).containsOnly(Map.entry("alpha", 1L), Map.entry("beta", 2L), Map.entry("gamma", 1L),
+            Map.entry("delta", 2L));
+        // Stored counts agree with the links
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tags t WHERE t.username = ? "
+            + "AND t.note_count <> (SELECT COUNT(*) FROM note_tags nt WHERE nt.tag_id = t.id)", Long.class, user)).isZero();
+        // The update only wrote the links it changed; its beta link was left alone
+        assertThat(linkChanges(updated)).containsExactlyInAnyOrder("delete alpha", "insert delta");
+        assertThat(linkChanges(tagged)).containsExactly("insert gamma");
+    }
+
+    private ResultActions batch(String user, String mode, NoteBatchOperationDTO... operations) throws Exception {
+        String body = objectMapper.writeValueAsString(new NoteBatchRequestDTO(mode, List.of(operations)));
+        return mockMvc.perform(post("/api/notes/batch").header(LoadTestSecurityConfig.USER_HEADER, user)
+            .contentType("application/json")
+            .content(body));
+    }
+
+    private long createNote(String user, String... tags) throws Exception {
+        String body = objectMapper.writeValueAsString(Map.of("title", "Note", "content", "<p>content</p>", "tags", List.of(tags)));
+        String response = mockMvc.perform(post("/api/notes").header(LoadTestSecurityConfig.USER_HEADER, user)
+            .contentType("application/json")
+            .content(body))
+            .andExpect(status().isCreated())
+            .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("id").asLong();
+    }
+
+    private Map<String, Long> tagCounts(String user) {
+        return jdbcTemplate.query("SELECT name, note_count FROM tags WHERE username = ?",
+            resultSet -> {
+                Map<String, Long> counts = new HashMap<>();
+                while (resultSet.next()) {
+                    counts.put(resultSet.getString(1), resultSet.getLong(2));
+                }
+                return counts;
+            }, user);
+    }
+
+    // Logs every note_tags insert and delete from now on
+    private void recordLinkChanges() {
+        jdbcTemplate.execute("CREATE TABLE link_changes (change TEXT, note_id BIGINT, tag_id BIGINT)");
+        jdbcTemplate.execute("CREATE TRIGGER link_inserted AFTER INSERT ON note_tags BEGIN "
+            + "INSERT INTO link_changes VALUES ('insert', NEW.note_id, NEW.tag_id); END");
+        jdbcTemplate.execute("CREATE TRIGGER link_deleted AFTER DELETE ON note_tags BEGIN "
+            + "INSERT INTO link_changes VALUES ('delete', OLD.note_id, OLD.tag_id); END");
+    }
+
+    private List<String> linkChanges(long noteId) {
+        return jdbcTemplate.queryForList("SELECT c.change || ' ' || t.name FROM link_changes c JOIN tags t ON t.id = c.tag_id "
+            + "WHERE c.note_id = ?", String.class, noteId);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.tagnote.controller;
+
+import com.example.tagnote.config.LoadTestSecurityConfig;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * List endpoints load the tag names of a whole page in one query, so the number
+ * of SQL statements per request does not grow with the page size.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("loadtest")
+class NoteControllerStatementCountTest {
+
+    private static final String USER = "statements";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    // A new database per run; the read cache is off so every request reaches it
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) throws IOException {
+        Path directory = Files.createTempDirectory("tagnote-test");
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + directory.resolve("tag-note.db"));
+        registry.add("app.cache.maximum-weight", () -> "0");
+    }
+
+    @Test
+    void statementsPerPageDoNotGrowWithPageSize() throws Exception {
+        StringBuilder notes = new StringBuilder();
+        for (int i = 0; i < 60; i++) {
+            notes.append("{\"title\":\"Note ").append(i).append("\",\"content\":\"<p>content ").append(i)
+                .append("</p>\",\"tags\":[\"tag-").append(i % 7).append("\",\"tag-").append(i % 11).append("\"]}\n");
+        }
+        mockMvc.perform(post("/api/notes/import").header(LoadTestSecurityConfig.USER_HEADER, USER)
+            .contentType("application/x-ndjson")
+            .content(notes.toString()))
+            .andExpect(status().isOk());
+
+        long small = statementsForPage(5);
+        long large = statementsForPage(50);
+
+        assertThat(large).isEqualTo(small);
+    }
+
+    private long statementsForPage(int size) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(get("/api/notes/paginated").header(LoadTestSecurityConfig.USER_HEADER, USER)
+            .param("size", String.valueOf(size)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content.length()").value(size));
+        return statistics.getPrepareStatementCount();
+    }
+}
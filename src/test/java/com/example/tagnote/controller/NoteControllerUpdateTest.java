@@ -0,0 +1,147 @@
+package com.example.tagnote.controller;
+
+import com.example.tagnote.config.LoadTestSecurityConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * PUT /api/notes/{id}: a stale If-Match is refused with 412, "*" or no
+ * If-Match always writes, a PUT that changes nothing writes nothing, and a tag
+ * change writes only the links it adds or removes.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("loadtest")
+class NoteControllerUpdateTest {
+
+    private static final String USER = "update";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) throws IOException {
+        Path directory = Files.createTempDirectory("tagnote-test");
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + directory.resolve("tag-note.db"));
+    }
+
+    @Test
+    void staleIfMatchIsRefused() throws Exception {
+        ResultActions create = create("First", List.of("a"));
+        long id = idOf(create);
+        String created = create.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        String updated = update(id, created, "Second", List.of("a"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(updated).isNotEqualTo(created);
+
+        update(id, created, "Third", List.of("a")).andExpect(status().isPreconditionFailed());
+        update(id, "\"not-a-version\"", "Third", List.of("a")).andExpect(status().isPreconditionFailed());
+        assertThat(jdbcTemplate.queryForObject("SELECT title FROM notes WHERE id = ?", String.class, id))
+            .isEqualTo("Second");
+    }
+
+    @Test
+    void wildcardOrNoIfMatchAlwaysWrites() throws Exception {
+        long id = idOf(create("First", List.of("a")));
+
+        mockMvc.perform(as(put("/api/notes/" + id)).header(HttpHeaders.IF_MATCH, "*")
+            .contentType("application/json").content(body("Second", List.of("a"))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.title").value("Second"));
+        mockMvc.perform(as(put("/api/notes/" + id)).contentType("application/json").content(body("Third", List.of("a"))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.title").value("Third"));
+    }
+
+    @Test
+    void putWithoutChangesWritesNothing() throws Exception {
+        ResultActions created = create("Same", List.of("a", "b"));
+        String eTag = created.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        long id = idOf(created);
+        Map<String, Object> before = jdbcTemplate.queryForMap("SELECT version, sync_version, updated_at FROM notes WHERE id = ?", id);
+
+        // Same tags in another order, padded and comma-separated
+        update(id, eTag, "Same", List.of(" b , a"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, eTag));
+
+        assertThat(jdbcTemplate.queryForMap("SELECT version, sync_version, updated_at FROM notes WHERE id = ?", id))
+            .isEqualTo(before);
+    }
+
+    @Test
+    void tagChangeWritesOnlyTheLinksThatChange() throws Exception {
+        ResultActions created = create("Tagged", List.of("keep", "drop"));
+        String eTag = created.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        long id = idOf(created);
+        recordLinkChanges();
+
+        update(id, eTag, "Tagged", List.of("keep", "add")).andExpect(status().isOk());
+
+        assertThat(jdbcTemplate.queryForList("SELECT c.change || ' ' || t.name FROM link_changes c JOIN tags t ON t.id = c.tag_id "
+            + "WHERE c.note_id = ?", String.class, id)).containsExactlyInAnyOrder("delete drop", "insert add");
+    }
+
+    private MockHttpServletRequestBuilder as(MockHttpServletRequestBuilder request) {
+        return request.header(LoadTestSecurityConfig.USER_HEADER, USER);
+    }
+
+    private String body(String title, List<String> tags) throws Exception {
+        return objectMapper.writeValueAsString(Map.of("title", title, "content", "<p>content</p>", "tags", tags));
+    }
+
+    private ResultActions create(String title, List<String> tags) throws Exception {
+        return mockMvc.perform(as(post("/api/notes")).contentType("application/json").content(body(title, tags)))
+            .andExpect(status().isCreated());
+    }
+
+    private ResultActions update(long id, String ifMatch, String title, List<String> tags) throws Exception {
+        return mockMvc.perform(as(put("/api/notes/" + id)).header(HttpHeaders.IF_MATCH, ifMatch)
+            .contentType("application/json").content(body(title, tags)));
+    }
+
+    private long idOf(ResultActions created) throws Exception {
+        return objectMapper.readTree(created.andReturn().getResponse().getContentAsString()).get("id").asLong();
+    }
+
+    // Logs every note_tags insert and delete from now on
+    private void recordLinkChanges() {
+        jdbcTemplate.execute("CREATE TABLE link_changes (change TEXT, note_id BIGINT, tag_id BIGINT)");
+        jdbcTemplate.execute("CREATE TRIGGER link_inserted AFTER INSERT ON note_tags BEGIN "
+            + "INSERT INTO link_changes VALUES ('insert', NEW.note_id, NEW.tag_id); END");
+        jdbcTemplate.execute("CREATE TRIGGER link_deleted AFTER DELETE ON note_tags BEGIN "
+            + "INSERT INTO link_changes VALUES ('delete', OLD.note_id, OLD.tag_id); END");
+    }
+}
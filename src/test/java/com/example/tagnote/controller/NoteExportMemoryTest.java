@@ -0,0 +1,94 @@
+package com.example.tagnote.controller;
+
+import com.example.tagnote.config.LoadTestSecurityConfig;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Streams the export of 500,000 notes over HTTP to the end. Run in its own JVM
+ * with a 64 MB heap by {@code mvn -Plarge-tests test}; the export is several
+ * times larger than the heap, so it only completes if rows are streamed.
+ */
+@Tag("large")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("loadtest")
+class NoteExportMemoryTest {
+
+    private static final String USER = "export";
+    private static final int NOTES = 500_000;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) throws IOException {
+        Path directory = Files.createTempDirectory("tagnote-test");
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + directory.resolve("tag-note.db"));
+    }
+
+    @Test
+    void exportStreamsAllNotes() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(LoadTestSecurityConfig.USER_HEADER, USER);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        Map<String, Object> note = Map.of("title", "Note", "content", "<p>" + "Exported content. ".repeat(20) + "</p>", "tags",
+            new String[] { "export", "large" });
+        ResponseEntity<Map> created = restTemplate.exchange("/api/notes", HttpMethod.POST, new HttpEntity<>(note, headers), Map.class);
+        assertThat(created.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+
+        // Copies the note and its tag links in SQL rather than through the API
+        Number template = (Number) created.getBody().get("id");
+        jdbcTemplate.update("INSERT INTO notes (title, body_encoding, body, preview, created_at, updated_at, username, sync_version) "
+            + "WITH RECURSIVE seq(i) AS (SELECT 1 UNION ALL SELECT i + 1 FROM seq WHERE i < ?) "
+            + "SELECT title || ' ' || i, body_encoding, body, preview, created_at, updated_at, username, sync_version "
+            + "FROM notes, seq WHERE notes.id = ?", NOTES - 1, template.longValue());
+        jdbcTemplate.update("INSERT INTO note_tags (note_id, tag_id) SELECT n.id, nt.tag_id FROM notes n, note_tags nt "
+            + "WHERE nt.note_id = ? AND n.id <> nt.note_id", template.longValue());
+
+        long lines = restTemplate.execute("/api/notes/export", HttpMethod.GET,
+            request -> request.getHeaders().set(LoadTestSecurityConfig.USER_HEADER, USER), response -> {
+                assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+                return countLines(response.getBody());
+            });
+
+        assertThat(lines).isEqualTo(NOTES);
+    }
+
+    private static long countLines(InputStream in) throws IOException {
+        byte[] buffer = new byte[8192];
+        long lines = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            for (int i = 0; i < read; i++) {
+                if (buffer[i] == '\n') {
+                    lines++;
+                }
+            }
+        }
+        return lines;
+    }
+}
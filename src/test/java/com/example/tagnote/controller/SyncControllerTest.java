@@ -0,0 +1,153 @@
+package com.example.tagnote.controller;
+
+import com.example.tagnote.config.LoadTestSecurityConfig;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * GET /api/sync/changes pages through note, tag and tombstone changes in
+ * (version, kind, id) order. Small pages split versions shared by many changes,
+ * and a client that keeps paging while others write neither misses a change
+ * nor gets one twice.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("loadtest")
+class SyncControllerTest {
+
+    private static final String USER = "sync";
+
+    private static final int PAGE_SIZE = 3;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) throws IOException {
+        Path directory = Files.createTempDirectory("tagnote-test");
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + directory.resolve("tag-note.db"));
+    }
+
+    @Test
+    void pagesNeitherSkipNorRepeatChanges() throws Exception {
+        // One version for the five notes and four tags of the import
+        StringBuilder notes = new StringBuilder();
+        for (int i = 0; i < 5; i++) {
+            notes.append("{\"title\":\"Note ").append(i).append("\",\"content\":\"<p>content</p>\",\"tags\":[\"tag-")
+                .append(i % 4).append("\"]}\n");
+        }
+        mockMvc.perform(as(post("/api/notes/import")).contentType("application/x-ndjson").content(notes.toString()))
+            .andExpect(status().isOk());
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT sync_version) FROM notes WHERE username = ?", Long.class, USER))
+            .isEqualTo(1);
+
+        // A client reads the first page, splitting the import's version
+        List<String> received = new ArrayList<>();
+        JsonNode page = changes("0");
+        received.addAll(keysOf(page));
+        assertThat(page.get("hasMore").asBoolean()).isTrue();
+
+        // Then notes and tags change while it is away: a new note with a new tag,
+        // a tag deleted with its notes, and a batch that updates, deletes and tags
+        List<Long> noteIds = jdbcTemplate.queryForList("SELECT id FROM notes WHERE username = ? ORDER BY id", Long.class, USER);
+        createNote("Later", "tag-0", "later");
+        mockMvc.perform(as(delete("/api/tags/" + tagId("tag-3")))).andExpect(status().isOk());
+        String batch = "{\"operations\":["
+            + "{\"op\":\"update\",\"id\":" + noteIds.get(0) + ",\"title\":\"Changed\",\"content\":\"<p>changed</p>\",\"tags\":[\"tag-1\"]},"
+            + "{\"op\":\"delete\",\"id\":" + noteIds.get(1) + "},"
+            + "{\"op\":\"addTags\",\"id\":" + noteIds.get(2) + ",\"tags\":[\"batch\"]}]}";
+        mockMvc.perform(as(post("/api/notes/batch")).contentType("application/json").content(batch)).andExpect(status().isOk());
+
+        // ...and picks up where it left off
+        String since = page.get("nextSince").asText();
+        while (page.get("hasMore").asBoolean()) {
+            page = changes(since);
+            received.addAll(keysOf(page));
+            since = page.get("nextSince").asText();
+        }
+
+        // Every change the database holds now reached the client, none twice. It may
+        // also hold older versions of notes that changed after it read them.
+        List<String> current = currentChanges();
+        assertThat(received).doesNotHaveDuplicates().containsAll(current);
+        assertThat(current).anyMatch(key -> key.startsWith("note-deleted:")).anyMatch(key -> key.startsWith("tag-deleted:"));
+
+        // A second client paging from the start gets the same feed as one large page
+        List<String> paged = new ArrayList<>();
+        page = changes("0");
+        paged.addAll(keysOf(page));
+        while (page.get("hasMore").asBoolean()) {
+            page = changes(page.get("nextSince").asText());
+            paged.addAll(keysOf(page));
+        }
+        JsonNode all = objectMapper.readTree(mockMvc.perform(as(get("/api/sync/changes")).param("limit", "1000"))
+            .andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+        assertThat(paged).containsExactlyElementsOf(keysOf(all)).containsExactlyInAnyOrderElementsOf(current);
+    }
+
+    private MockHttpServletRequestBuilder as(MockHttpServletRequestBuilder request) {
+        return request.header(LoadTestSecurityConfig.USER_HEADER, USER);
+    }
+
+    private JsonNode changes(String since) throws Exception {
+        String response = mockMvc.perform(as(get("/api/sync/changes")).param("since", since).param("limit", String.valueOf(PAGE_SIZE)))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response);
+    }
+
+    // type[-deleted]:id@version for each change of a response
+    private List<String> keysOf(JsonNode page) {
+        List<String> keys = new ArrayList<>();
+        for (JsonNode change : page.get("changes")) {
+            keys.add(change.get("type").asText() + (change.get("deleted").asBoolean() ? "-deleted" : "") + ":"
+                + change.get("id").asLong() + "@" + change.get("version").asLong());
+        }
+        return keys;
+    }
+
+    private List<String> currentChanges() {
+        return jdbcTemplate.queryForList("SELECT 'note:' || id || '@' || sync_version FROM notes WHERE username = ? "
+            + "UNION ALL SELECT 'tag:' || id || '@' || sync_version FROM tags WHERE username = ? "
+            + "UNION ALL SELECT entity_type || '-deleted:' || entity_id || '@' || sync_version FROM sync_tombstones WHERE username = ?",
+            String.class, USER, USER, USER);
+    }
+
+    private void createNote(String title, String... tags) throws Exception {
+        String body = objectMapper.writeValueAsString(Map.of("title", title, "content", "<p>content</p>", "tags", List.of(tags)));
+        mockMvc.perform(as(post("/api/notes")).contentType("application/json").content(body)).andExpect(status().isCreated());
+    }
+
+    private long tagId(String name) {
+        return jdbcTemplate.queryForObject("SELECT id FROM tags WHERE username = ? AND name = ?", Long.class, USER, name);
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.tagnote.controller;
+
+import com.example.tagnote.config.LoadTestSecurityConfig;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tag rename, merge and delete: a rename to a taken name is refused, a merge
+ * moves each note link once and deletes the source, the tag search and
+ * suggestion indexes follow both, and a delete recounts the tags left behind.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("loadtest")
+class TagControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) throws IOException {
+        Path directory = Files.createTempDirectory("tagnote-test");
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + directory.resolve("tag-note.db"));
+    }
+
+    @Test
+    void renameToATakenNameConflicts() throws Exception {
+        String user = "rename";
+        createNote(user, "alpha");
+        createNote(user, "beta");
+        Map<String, Long> tagIds = tagIds(user);
+        // Loads both indexes before the rename
+        search(user, "alpha", 1);
+        suggest(user, "alp", List.of("alpha"));
+
+        mockMvc.perform(as(user, put("/api/tags/" + tagIds.get("alpha"))).contentType("application/json").content("{\"name\":\"beta\"}"))
+            .andExpect(status().isConflict());
+        mockMvc.perform(as(user, put("/api/tags/" + tagIds.get("alpha"))).contentType("application/json").content("{\"name\":\"gamma\"}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(tagIds.get("alpha")))
+            .andExpect(jsonPath("$.name").value("gamma"));
+
+        assertThat(tagIds(user)).containsOnlyKeys("gamma", "beta");
+        search(user, "gamma", 1);
+        search(user, "alpha", 0);
+        suggest(user, "gam", List.of("gamma"));
+        suggest(user, "alp", List.of());
+    }
+
+    @Test
+    void mergeMovesEachLinkOnceAndDeletesTheSource() throws Exception {
+        String user = "merge";
+        long onlySource = createNote(user, "merge-a");
+        long both = createNote(user, "merge-a", "merge-b");
+        long onlyTarget = createNote(user, "merge-b");
+        Map<String, Long> tagIds = tagIds(user);
+        long source = tagIds.get("merge-a");
+        long target = tagIds.get("merge-b");
+        search(user, "merge-a", 2);
+        search(user, "merge-b", 2);
+        suggest(user, "merge", List.of("merge-a", "merge-b"));
+
+        mockMvc.perform(as(user, post("/api/tags/" + source + "/merge/" + target)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.noteTagLinksMoved").value(1))
+            .andExpect(jsonPath("$.noteTagLinksDropped").value(1))
+            .andExpect(jsonPath("$.target.id").value(target))
+            .andExpect(jsonPath("$.target.noteCount").value(3));
+
+        // One link per note, none left on the source, and the stored count agrees
+        assertThat(jdbcTemplate.queryForList("SELECT note_id FROM note_tags WHERE tag_id = ? ORDER BY note_id", Long.class, target))
+            .containsExactly(onlySource, both, onlyTarget);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM note_tags WHERE tag_id = ?", Long.class, source)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT note_count FROM tags WHERE id = ?", Long.class, target)).isEqualTo(3);
+        assertThat(tagIds(user)).containsOnlyKeys("merge-b");
+
+        // The tombstone carries the version the source's notes were stamped with
+        Long tombstoneVersion = jdbcTemplate.queryForObject(
+            "SELECT sync_version FROM sync_tombstones WHERE username = ? AND entity_type = 'tag' AND entity_id = ?", Long.class, user,
+            source);
+        assertThat(jdbcTemplate.queryForList("SELECT sync_version FROM notes WHERE id IN (?, ?)", Long.class, onlySource, both))
+            .containsOnly(tombstoneVersion);
+
+        search(user, "merge-b", 3);
+        search(user, "merge-a", 0);
+        suggest(user, "merge", List.of("merge-b"));
+        mockMvc.perform(as(user, get("/api/tags/suggest")).param("prefix", "merge"))
+            .andExpect(jsonPath("$[0].noteCount").value(3));
+    }
+
+    @Test
+    void mergeIntoItselfOrAnotherUsersTagIsRefused() throws Exception {
+        createNote("owner", "mine");
+        createNote("other", "theirs");
+        long mine = tagIds("owner").get("mine");
+        long theirs = tagIds("other").get("theirs");
+
+        mockMvc.perform(as("owner", post("/api/tags/" + mine + "/merge/" + mine))).andExpect(status().isBadRequest());
+        mockMvc.perform(as("owner", post("/api/tags/" + mine + "/merge/" + theirs))).andExpect(status().isNotFound());
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM note_tags WHERE tag_id = ?", Long.class, theirs)).isEqualTo(1);
+    }
+
+    @Test
+    void deletingATagWithItsNotesRecomputesTheUsageOfItsCoTags() throws Exception {
+        String user = "delete";
+        long older = createNote(user, "kept");
+        long newer = createNote(user, "deleted", "kept");
+        jdbcTemplate.update("UPDATE notes SET created_at = created_at - 60000, updated_at = updated_at - 60000 WHERE id = ?", older);
+        Map<String, Long> tagIds = tagIds(user);
+
+        mockMvc.perform(as(user, delete("/api/tags/" + tagIds.get("deleted")))).andExpect(status().isOk());
+
+        // Count and last use now come from the older note alone
+        Map<String, Object> kept = jdbcTemplate.queryForMap(
+            "SELECT t.note_count, t.last_used_at = n.updated_at AS last_used_matches FROM tags t, notes n WHERE t.id = ? AND n.id = ?",
+            tagIds.get("kept"), older);
+        assertThat(((Number) kept.get("note_count")).longValue()).isEqualTo(1);
+        assertThat(((Number) kept.get("last_used_matches")).intValue()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notes WHERE id = ?", Long.class, newer)).isZero();
+    }
+
+    private MockHttpServletRequestBuilder as(String user, MockHttpServletRequestBuilder request) {
+        return request.header(LoadTestSecurityConfig.USER_HEADER, user);
+    }
+
+    private long createNote(String user, String... tags) throws Exception {
+        String body = objectMapper.writeValueAsString(Map.of("title", "Note", "content", "<p>content</p>", "tags", List.of(tags)));
+        String response = mockMvc.perform(as(user, post("/api/notes")).contentType("application/json").content(body))
+            .andExpect(status().isCreated())
+            .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("id").asLong();
+    }
+
+    private Map<String, Long> tagIds(String user) throws Exception {
+        String response = mockMvc.perform(as(user, get("/api/tags"))).andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        Map<String, Long> tagIds = new HashMap<>();
+        for (JsonNode tag : objectMapper.readTree(response)) {
+            tagIds.put(tag.get("name").asText(), tag.get("id").asLong());
+        }
+        return tagIds;
+    }
+
+    // Tag search, answered from the bitmap index
+    private void search(String user, String tag, int matches) throws Exception {
+        mockMvc.perform(as(user, get("/api/notes/search")).param("tags", tag))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", String.valueOf(matches)));
+    }
+
+    private void suggest(String user, String prefix, List<String> names) throws Exception {
+        String response = mockMvc.perform(as(user, get("/api/tags/suggest")).param("prefix", prefix))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        List<String> suggested = objectMapper.readTree(response).findValuesAsText("name");
+        assertThat(suggested).containsExactlyInAnyOrderElementsOf(names);
+    }
+}
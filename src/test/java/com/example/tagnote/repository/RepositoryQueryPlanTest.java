@@ -0,0 +1,276 @@
+package com.example.tagnote.repository;
+
+import com.example.tagnote.service.NoteService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs every query method of NoteRepository and TagRepository against a
+ * database migrated by Flyway, records the SQL each one sends, and checks with
+ * EXPLAIN QUERY PLAN that none of it scans the notes or tags table without an
+ * index. Writes are rolled back.
+ */
+@SpringBootTest
+@ActiveProfiles("loadtest")
+class RepositoryQueryPlanTest {
+
+    private static final String USER = "plans";
+
+    // Queries across all users: findAll pages through every note once for the
+    // search index backfill, the others are not called anywhere
+    private static final Set<String> UNSCOPED = Set.of("findAll", "findAllByOrderByCreatedAtDesc", "findAllByOrderByCreatedAtAsc",
+        "findByName");
+
+    // The table or alias a plan row scans, and what the SQL names notes and tags
+    private static final Pattern SCAN = Pattern.compile("^SCAN (\\S+)(.*)$");
+    private static final Pattern TABLE_ALIAS = Pattern.compile("\\b(notes|tags)(?:\\s+(?:as\\s+)?([a-z_][a-z0-9_]*))?",
+        Pattern.CASE_INSENSITIVE);
+    private static final Set<String> KEYWORDS = Set.of("where", "on", "join", "left", "inner", "set", "group", "order", "limit",
+        "values", "select", "and", "or", "as");
+
+    private static final List<String> statements = new CopyOnWriteArrayList<>();
+    private static volatile boolean recording;
+
+    @Autowired
+    private NoteRepository noteRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private NoteService noteService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) throws IOException {
+        Path directory = Files.createTempDirectory("tagnote-test");
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + directory.resolve("tag-note.db"));
+    }
+
+    @BeforeEach
+    void authenticate() {
+        List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("OIDC_USER"));
+        User user = new User(USER, "", authorities);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(user, null, authorities));
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void noQueryScansNotesOrTagsWithoutAnIndex() throws Exception {
+        // Enough rows that page queries also run their count query
+        for (int i = 0; i < 3; i++) {
+            noteService.createNote("Note " + i, "<p>content " + i + "</p>", List.of("a", "b"));
+        }
+
+        List<String> checked = new ArrayList<>();
+        List<String> violations = new ArrayList<>();
+        for (Object repository : List.of(noteRepository, tagRepository)) {
+            Class<?> type = repository == noteRepository ? NoteRepository.class : TagRepository.class;
+            for (Method method : type.getDeclaredMethods()) {
+                if (method.isDefault() || Modifier.isStatic(method.getModifiers()) || UNSCOPED.contains(method.getName())) {
+                    continue;
+                }
+                for (String sql : statementsOf(repository, method)) {
+                    checked.add(sql);
+                    for (String row : explain(sql)) {
+                        if (scansNotesOrTags(sql, row)) {
+                            violations.add(type.getSimpleName() + "." + method.getName() + ": " + row + "\n    " + sql);
+                        }
+                    }
+                }
+            }
+        }
+
+        assertThat(checked).hasSizeGreaterThan(50);
+        assertThat(violations).isEmpty();
+    }
+
+    // The statements a repository method sends, run in a transaction that is
+    // rolled back
+    private List<String> statementsOf(Object repository, Method method) {
+        Object[] arguments = argumentsFor(method);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        return transactionTemplate.execute(status -> {
+            status.setRollbackOnly();
+            statements.clear();
+            recording = true;
+            try {
+                method.invoke(repository, arguments);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new IllegalStateException(method.getName() + " failed", e);
+            } finally {
+                recording = false;
+            }
+            return new ArrayList<>(statements);
+        });
+    }
+
+    private Object[] argumentsFor(Method method) {
+        Type[] types = method.getGenericParameterTypes();
+        Object[] arguments = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            arguments[i] = argumentFor(types[i]);
+        }
+        return arguments;
+    }
+
+    private Object argumentFor(Type type) {
+        if (type == String.class) {
+            return USER;
+        }
+        if (type == Long.class || type == long.class) {
+            return 1L;
+        }
+        if (type == LocalDateTime.class) {
+            return LocalDateTime.now();
+        }
+        if (type == Pageable.class) {
+            return PageRequest.of(0, 1);
+        }
+        if (type == Sort.class) {
+            return Sort.by(Sort.Direction.DESC, "noteCount");
+        }
+        if (type instanceof ParameterizedType parameterized && Collection.class.isAssignableFrom(
+            (Class<?>) parameterized.getRawType())) {
+            return parameterized.getActualTypeArguments()[0] == String.class ? List.of("a") : List.of(1L, 2L);
+        }
+        throw new IllegalArgumentException("No test argument for " + type);
+    }
+
+    private List<String> explain(String sql) {
+        return jdbcTemplate.execute((Connection connection) -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN QUERY PLAN " + sql)) {
+                int parameters = statement.getParameterMetaData().getParameterCount();
+                for (int i = 1; i <= parameters; i++) {
+                    statement.setObject(i, null);
+                }
+                List<String> rows = new ArrayList<>();
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        rows.add(resultSet.getString("detail"));
+                    }
+                }
+                return rows;
+            }
+        });
+    }
+
+    // A SCAN row without USING INDEX / USING COVERING INDEX / USING INTEGER
+    // PRIMARY KEY over notes or tags, by table name or by alias
+    private static boolean scansNotesOrTags(String sql, String row) {
+        Matcher scan = SCAN.matcher(row);
+        if (!scan.matches() || scan.group(2).contains("USING")) {
+            return false;
+        }
+        Set<String> names = new HashSet<>(Set.of("notes", "tags"));
+        Matcher alias = TABLE_ALIAS.matcher(sql);
+        while (alias.find()) {
+            if (alias.group(2) != null && !KEYWORDS.contains(alias.group(2).toLowerCase(Locale.ROOT))) {
+                names.add(alias.group(2));
+            }
+        }
+        return names.contains(scan.group(1));
+    }
+
+    @TestConfiguration
+    static class StatementRecording {
+
+        // Wraps the application's DataSource so every prepared statement's SQL is
+        // recorded while a repository method runs
+        @Bean
+        static BeanPostProcessor recordingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return "dataSource".equals(beanName) ? new RecordingDataSource((DataSource) bean) : bean;
+                }
+            };
+        }
+    }
+
+    private static class RecordingDataSource extends DelegatingDataSource {
+        RecordingDataSource(DataSource dataSource) {
+            super(dataSource);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return record(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return record(super.getConnection(username, password));
+        }
+
+        private static Connection record(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(RecordingDataSource.class.getClassLoader(), new Class<?>[] { Connection.class },
+                (proxy, method, arguments) -> {
+                    if (recording && method.getName().startsWith("prepare") && arguments != null && arguments[0] instanceof String sql) {
+                        statements.add(sql);
+                    }
+                    try {
+                        return method.invoke(connection, arguments);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.tagnote.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A view loaded inside a transaction whose snapshot predates a committed write
+ * is not cached, so later reads see the write; and only the first small note
+ * pages are cached at all.
+ */
+@SpringBootTest
+@ActiveProfiles("loadtest")
+class UserReadCacheTest {
+
+    private static final String USER = "cache";
+
+    @Autowired
+    private NoteService noteService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) throws IOException {
+        Path directory = Files.createTempDirectory("tagnote-test");
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + directory.resolve("tag-note.db"));
+    }
+
+    @BeforeEach
+    void authenticate() {
+        List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("OIDC_USER"));
+        User user = new User(USER, "", authorities);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(user, null, authorities));
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void loadFromAnOlderSnapshotIsNotCached() {
+        noteService.createNote("First", "<p>first</p>", List.of("a"));
+        SecurityContext securityContext = SecurityContextHolder.getContext();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            // Starts the transaction's snapshot without touching the cache
+            noteService.getAllNotes(PageRequest.of(0, 5));
+            CompletableFuture.runAsync(() -> {
+                SecurityContextHolder.setContext(securityContext);
+                noteService.createNote("Second", "<p>second</p>", List.of("a"));
+            }).join();
+            // Consistent with the snapshot, and not cached under the new generation
+            assertThat(noteService.getNotePage(PageRequest.of(0, 5)).getTotalElements()).isEqualTo(1);
+            assertThat(noteService.getNoteSummaries(PageRequest.of(0, 5)).getTotalElements()).isEqualTo(1);
+        });
+
+        assertThat(noteService.getNotePage(PageRequest.of(0, 5)).getTotalElements()).isEqualTo(2);
+        assertThat(noteService.getNoteSummaries(PageRequest.of(0, 5)).getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    void onlyTheFirstSmallPagesAreCached() {
+        noteService.createNote("Note", "<p>note</p>", List.of("a"));
+        double misses = misses();
+
+        // Past the cached pages, larger than a cached page, or not a page at all
+        noteService.getNotePage(PageRequest.of(3, 5));
+        noteService.getNoteSummaries(PageRequest.of(3, 5));
+        noteService.getNotePage(PageRequest.of(0, 1000));
+        noteService.getAllNoteSummaries();
+        noteService.getTagNamesByNoteIds(List.of(1L, 2L));
+        assertThat(misses()).isEqualTo(misses);
+
+        noteService.getNotePage(PageRequest.of(2, 5));
+        noteService.getNotePage(PageRequest.of(2, 5));
+        assertThat(misses()).isEqualTo(misses + 1);
+        assertThat(hits()).isPositive();
+    }
+
+    private double misses() {
+        return meterRegistry.get("cache.gets").tag("cache", "tagnote.user-read").tag("result", "miss").functionCounter().count();
+    }
+
+    private double hits() {
+        return meterRegistry.get("cache.gets").tag("cache", "tagnote.user-read").tag("result", "hit").functionCounter().count();
+    }
+}